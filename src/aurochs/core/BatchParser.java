@@ -0,0 +1,327 @@
+package aurochs.core;
+
+import static aurochs.core.TokenSource.tokens;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import aurochs.core.LRParser.Parsing;
+
+import multij.tools.Tools;
+
+/**
+ * Parses many independent inputs concurrently with a single parser and lexer.
+ * <br>Each task parses a batch of consecutive inputs with its own lexer session and parsing state;
+ * any {@link Executor} can run the tasks, for instance <code>Executors.newVirtualThreadPerTaskExecutor()</code>.
+ *
+ * @author codistmonk (creation 2026-10-17)
+ */
+public final class BatchParser implements Serializable {
+	
+	private final LRParser parser;
+	
+	private final Lexer lexer;
+	
+	private final int batchSize;
+	
+	private final int maximumPendingBatches;
+	
+	public BatchParser(final LRParser parser, final Lexer lexer) {
+		this(parser, lexer, DEFAULT_BATCH_SIZE, DEFAULT_MAXIMUM_PENDING_BATCHES);
+	}
+	
+	/**
+	 * @param lexer
+	 * <br>Can be <code>null</code> to parse characters directly
+	 * @param maximumPendingBatches
+	 * <br>Bounds the number of inputs and results held while streaming
+	 */
+	public BatchParser(final LRParser parser, final Lexer lexer, final int batchSize, final int maximumPendingBatches) {
+		if (batchSize < 1 || maximumPendingBatches < 1) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.parser = parser;
+		this.lexer = lexer;
+		this.batchSize = batchSize;
+		this.maximumPendingBatches = maximumPendingBatches;
+	}
+	
+	public final LRParser getParser() {
+		return this.parser;
+	}
+	
+	public final Lexer getLexer() {
+		return this.lexer;
+	}
+	
+	public final int getBatchSize() {
+		return this.batchSize;
+	}
+	
+	public final int getMaximumPendingBatches() {
+		return this.maximumPendingBatches;
+	}
+	
+	/**
+	 * @return The results in input order
+	 */
+	public final List<Result> parseAll(final Collection<? extends CharSequence> inputs, final Executor executor) {
+		try (final Stream<Result> results = this.parseAll(inputs.stream(), executor)) {
+			return results.collect(Collectors.toList());
+		}
+	}
+	
+	/**
+	 * <code>inputs</code> is consumed lazily by the thread that consumes the result.
+	 *
+	 * @return The results in input order
+	 */
+	public final Stream<Result> parseAll(final Stream<? extends CharSequence> inputs, final Executor executor) {
+		return this.stream(inputs, executor, true);
+	}
+	
+	/**
+	 * <code>inputs</code> is consumed lazily by the thread that consumes the result.
+	 *
+	 * @return The results batch by batch, as soon as each batch is parsed
+	 */
+	public final Stream<Result> parseAllAsCompleted(final Stream<? extends CharSequence> inputs,
+			final Executor executor) {
+		return this.stream(inputs, executor, false);
+	}
+	
+	/**
+	 * Parses <code>inputs</code> in the calling thread.
+	 */
+	public final List<Result> parseBatch(final long firstIndex, final List<? extends CharSequence> inputs) {
+		final Lexer.Session session = this.getLexer() == null ? null : this.getLexer().new Session();
+		final List<Result> result = new ArrayList<>(inputs.size());
+		Parsing parsing = null;
+		long index = firstIndex;
+		
+		for (final CharSequence input : inputs) {
+			try {
+				final TokenSource<?> tokens = session == null ? tokens(input) : session.translate(tokens(input));
+				
+				if (parsing == null) {
+					parsing = this.getParser().new Parsing(tokens);
+				} else {
+					parsing.reset(tokens);
+				}
+				
+				final boolean success = parsing.parse() && (session == null || session.getUnlexedOffset() < 0L);
+				
+				result.add(new Result(index, input, success, success ? parsing.getDatum() : null, null));
+			} catch (final RuntimeException exception) {
+				result.add(new Result(index, input, false, null, exception));
+			}
+			
+			++index;
+		}
+		
+		return result;
+	}
+	
+	private final Stream<Result> stream(final Stream<? extends CharSequence> inputs, final Executor executor,
+			final boolean ordered) {
+		final Spliterator<Result> results = Spliterators.spliteratorUnknownSize(
+				this.new Results(inputs.iterator(), executor, ordered),
+				(ordered ? Spliterator.ORDERED : 0) | Spliterator.NONNULL);
+		
+		return StreamSupport.stream(results, false).onClose(inputs::close);
+	}
+	
+	/**
+	 * {@value}.
+	 */
+	private static final long serialVersionUID = 3371874457312707052L;
+	
+	/**
+	 * {@value}.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+	
+	/**
+	 * {@value}.
+	 */
+	public static final int DEFAULT_MAXIMUM_PENDING_BATCHES = 64;
+	
+	/**
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	private final class Results implements Iterator<Result> {
+		
+		private final Iterator<? extends CharSequence> inputs;
+		
+		private final Executor executor;
+		
+		private final boolean ordered;
+		
+		private final Deque<CompletableFuture<List<Result>>> pendingBatches;
+		
+		private final BlockingQueue<CompletableFuture<List<Result>>> completedBatches;
+		
+		private int pendingBatchCount;
+		
+		private long nextIndex;
+		
+		private Iterator<Result> batch;
+		
+		Results(final Iterator<? extends CharSequence> inputs, final Executor executor, final boolean ordered) {
+			this.inputs = inputs;
+			this.executor = executor;
+			this.ordered = ordered;
+			this.pendingBatches = new ArrayDeque<>();
+			this.completedBatches = new LinkedBlockingQueue<>();
+			this.batch = Collections.emptyIterator();
+		}
+		
+		@Override
+		public final boolean hasNext() {
+			while (!this.batch.hasNext()) {
+				this.submitBatches();
+				
+				if (this.pendingBatchCount == 0) {
+					return false;
+				}
+				
+				--this.pendingBatchCount;
+				this.batch = this.nextBatch().join().iterator();
+			}
+			
+			return true;
+		}
+		
+		@Override
+		public final Result next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			
+			return this.batch.next();
+		}
+		
+		private final CompletableFuture<List<Result>> nextBatch() {
+			if (this.ordered) {
+				return this.pendingBatches.remove();
+			}
+			
+			try {
+				return this.completedBatches.take();
+			} catch (final InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				
+				throw Tools.unchecked(exception);
+			}
+		}
+		
+		private final void submitBatches() {
+			final BatchParser batchParser = BatchParser.this;
+			
+			while (this.pendingBatchCount < batchParser.getMaximumPendingBatches() && this.inputs.hasNext()) {
+				final List<CharSequence> inputs = new ArrayList<>(batchParser.getBatchSize());
+				
+				while (inputs.size() < batchParser.getBatchSize() && this.inputs.hasNext()) {
+					inputs.add(this.inputs.next());
+				}
+				
+				final long firstIndex = this.nextIndex;
+				final CompletableFuture<List<Result>> batch = CompletableFuture.supplyAsync(
+						() -> batchParser.parseBatch(firstIndex, inputs), this.executor);
+				
+				if (this.ordered) {
+					this.pendingBatches.add(batch);
+				} else {
+					batch.whenComplete((results, exception) -> this.completedBatches.add(batch));
+				}
+				
+				this.nextIndex += inputs.size();
+				++this.pendingBatchCount;
+			}
+		}
+		
+	}
+	
+	/**
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public static final class Result implements Serializable {
+		
+		private final long index;
+		
+		private final CharSequence input;
+		
+		private final boolean success;
+		
+		private final Object datum;
+		
+		private final RuntimeException error;
+		
+		public Result(final long index, final CharSequence input, final boolean success, final Object datum,
+				final RuntimeException error) {
+			this.index = index;
+			this.input = input;
+			this.success = success;
+			this.datum = datum;
+			this.error = error;
+		}
+		
+		/**
+		 * @return The position of the input in its batch call
+		 */
+		public final long getIndex() {
+			return this.index;
+		}
+		
+		public final CharSequence getInput() {
+			return this.input;
+		}
+		
+		/**
+		 * @return <code>true</code> if the whole input was lexed and accepted
+		 */
+		public final boolean isSuccess() {
+			return this.success;
+		}
+		
+		public final Object getDatum() {
+			return this.datum;
+		}
+		
+		/**
+		 * @return The exception thrown by a rule action, or <code>null</code>
+		 */
+		public final RuntimeException getError() {
+			return this.error;
+		}
+		
+		@Override
+		public final String toString() {
+			return this.getIndex() + ":" + (this.isSuccess() ? this.getDatum() : "error");
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = -4467532519209541781L;
+		
+	}
+	
+}
@@ -0,0 +1,398 @@
+package aurochs.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+import multij.tools.Tools;
+
+/**
+ * Immutable set of characters stored as sorted disjoint ranges; usable as a single lexer symbol.
+ *
+ * @author codistmonk (creation 2026-10-17)
+ */
+public final class CharClass implements Serializable {
+	
+	/**
+	 * Pairs of inclusive bounds.
+	 */
+	private final char[] ranges;
+	
+	private final int hashCode;
+	
+	private CharClass(final char[] ranges) {
+		this.ranges = ranges;
+		this.hashCode = Arrays.hashCode(ranges);
+	}
+	
+	public final int getRangeCount() {
+		return this.ranges.length / 2;
+	}
+	
+	public final char getFirst(final int rangeIndex) {
+		return this.ranges[2 * rangeIndex + 0];
+	}
+	
+	public final char getLast(final int rangeIndex) {
+		return this.ranges[2 * rangeIndex + 1];
+	}
+	
+	public final boolean isEmpty() {
+		return this.ranges.length == 0;
+	}
+	
+	public final int size() {
+		int result = 0;
+		
+		for (int i = 0; i < this.ranges.length; i += 2) {
+			result += this.ranges[i + 1] - this.ranges[i] + 1;
+		}
+		
+		return result;
+	}
+	
+	public final boolean contains(final char c) {
+		int low = 0;
+		int high = this.getRangeCount() - 1;
+		
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			
+			if (c < this.getFirst(middle)) {
+				high = middle - 1;
+			} else if (this.getLast(middle) < c) {
+				low = middle + 1;
+			} else {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	public final CharClass union(final CharClass that) {
+		final char[] ranges = Arrays.copyOf(this.ranges, this.ranges.length + that.ranges.length);
+		
+		System.arraycopy(that.ranges, 0, ranges, this.ranges.length, that.ranges.length);
+		
+		return normalize(ranges);
+	}
+	
+	public final CharClass negate() {
+		final List<Character> result = new ArrayList<>();
+		int next = Character.MIN_VALUE;
+		
+		for (int i = 0; i < this.ranges.length; i += 2) {
+			if (next < this.ranges[i]) {
+				result.add((char) next);
+				result.add((char) (this.ranges[i] - 1));
+			}
+			
+			next = this.ranges[i + 1] + 1;
+		}
+		
+		if (next <= Character.MAX_VALUE) {
+			result.add((char) next);
+			result.add(Character.MAX_VALUE);
+		}
+		
+		return new CharClass(toCharArray(result));
+	}
+	
+	@Override
+	public final int hashCode() {
+		return this.hashCode;
+	}
+	
+	@Override
+	public final boolean equals(final Object object) {
+		final CharClass that = Tools.cast(this.getClass(), object);
+		
+		return that != null && this.hashCode() == that.hashCode() && Arrays.equals(this.ranges, that.ranges);
+	}
+	
+	@Override
+	public final String toString() {
+		final StringBuilder resultBuilder = new StringBuilder("[");
+		
+		for (int i = 0; i < this.ranges.length; i += 2) {
+			appendCharacter(resultBuilder, this.ranges[i]);
+			
+			if (this.ranges[i] != this.ranges[i + 1]) {
+				appendCharacter(resultBuilder.append('-'), this.ranges[i + 1]);
+			}
+		}
+		
+		return resultBuilder.append(']').toString();
+	}
+	
+	/**
+	 * {@value}.
+	 */
+	private static final long serialVersionUID = 4370869209573102611L;
+	
+	public static final CharClass range(final char first, final char last) {
+		return first <= last ? new CharClass(new char[] { first, last }) : new CharClass(new char[0]);
+	}
+	
+	public static final CharClass of(final char... characters) {
+		final char[] ranges = new char[2 * characters.length];
+		
+		for (int i = 0; i < characters.length; ++i) {
+			ranges[2 * i + 0] = characters[i];
+			ranges[2 * i + 1] = characters[i];
+		}
+		
+		return normalize(ranges);
+	}
+	
+	/**
+	 * Scans the whole <code>char</code> range, for instance <code>matching(Character::isLetter)</code>.
+	 */
+	public static final CharClass matching(final IntPredicate predicate) {
+		final List<Character> result = new ArrayList<>();
+		int first = -1;
+		
+		for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE + 1; ++c) {
+			final boolean matching = c <= Character.MAX_VALUE && predicate.test(c);
+			
+			if (matching && first < 0) {
+				first = c;
+			} else if (!matching && 0 <= first) {
+				result.add((char) first);
+				result.add((char) (c - 1));
+				first = -1;
+			}
+		}
+		
+		return new CharClass(toCharArray(result));
+	}
+	
+	/**
+	 * @return <code>null</code> if <code>symbol</code> isn't a {@link Character} or a {@link CharClass}
+	 */
+	public static final CharClass toCharClass(final Object symbol) {
+		if (symbol instanceof Character) {
+			return of((Character) symbol);
+		}
+		
+		if (symbol instanceof CharClass) {
+			return (CharClass) symbol;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * @return The single character of <code>characterClass</code> if it has only one,
+	 * <code>characterClass</code> otherwise
+	 */
+	public static final Object simplify(final CharClass characterClass) {
+		if (characterClass.getRangeCount() == 1 && characterClass.getFirst(0) == characterClass.getLast(0)) {
+			return characterClass.getFirst(0);
+		}
+		
+		return characterClass;
+	}
+	
+	/**
+	 * @return The coarsest disjoint classes (atoms) such that each class in <code>classes</code>
+	 * is a union of atoms, sorted by first character
+	 */
+	public static final List<CharClass> partition(final Collection<CharClass> classes) {
+		final CharClass[] array = classes.toArray(new CharClass[classes.size()]);
+		final TreeSet<Integer> bounds = new TreeSet<>();
+		
+		for (final CharClass characterClass : array) {
+			for (int i = 0; i < characterClass.ranges.length; i += 2) {
+				bounds.add((int) characterClass.ranges[i]);
+				bounds.add(characterClass.ranges[i + 1] + 1);
+			}
+		}
+		
+		final Map<BitSet, List<Character>> atoms = new LinkedHashMap<>();
+		Integer start = bounds.isEmpty() ? null : bounds.first();
+		
+		while (start != null) {
+			final Integer end = bounds.higher(start);
+			
+			if (end == null) {
+				break;
+			}
+			
+			final BitSet signature = new BitSet(array.length);
+			
+			for (int i = 0; i < array.length; ++i) {
+				if (array[i].contains((char) (int) start)) {
+					signature.set(i);
+				}
+			}
+			
+			if (!signature.isEmpty()) {
+				final List<Character> atomRanges = atoms.computeIfAbsent(signature, k -> new ArrayList<>());
+				
+				atomRanges.add((char) (int) start);
+				atomRanges.add((char) (end - 1));
+			}
+			
+			start = end;
+		}
+		
+		final List<CharClass> result = new ArrayList<>(atoms.size());
+		
+		for (final List<Character> atomRanges : atoms.values()) {
+			result.add(normalize(toCharArray(atomRanges)));
+		}
+		
+		return result;
+	}
+	
+	private static final CharClass normalize(final char[] ranges) {
+		final int n = ranges.length / 2;
+		final Integer[] order = new Integer[n];
+		
+		for (int i = 0; i < n; ++i) {
+			order[i] = i;
+		}
+		
+		Arrays.sort(order, (i, j) -> Character.compare(ranges[2 * i], ranges[2 * j]));
+		
+		final List<Character> result = new ArrayList<>();
+		
+		for (final int i : order) {
+			final char first = ranges[2 * i + 0];
+			final char last = ranges[2 * i + 1];
+			final int m = result.size();
+			
+			if (0 < m && first <= result.get(m - 1) + 1) {
+				if (result.get(m - 1) < last) {
+					result.set(m - 1, last);
+				}
+			} else {
+				result.add(first);
+				result.add(last);
+			}
+		}
+		
+		return new CharClass(toCharArray(result));
+	}
+	
+	private static final char[] toCharArray(final List<Character> list) {
+		final char[] result = new char[list.size()];
+		
+		for (int i = 0; i < result.length; ++i) {
+			result[i] = list.get(i);
+		}
+		
+		return result;
+	}
+	
+	private static final void appendCharacter(final StringBuilder resultBuilder, final char c) {
+		if (' ' < c && c <= '~' && c != '-' && c != '[' && c != ']' && c != '\\') {
+			resultBuilder.append(c);
+		} else {
+			resultBuilder.append(String.format("\\u%04x", (int) c));
+		}
+	}
+	
+	/**
+	 * Maps characters to ids through a two-level table; pages filled with a single id are shared.
+	 *
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public static final class Lookup implements Serializable {
+		
+		private final int[][] pages;
+		
+		private final BitSet ownedPages;
+		
+		private final Map<Integer, int[]> uniformPages;
+		
+		public Lookup() {
+			this.pages = new int[PAGE_COUNT][];
+			this.ownedPages = new BitSet(PAGE_COUNT);
+			this.uniformPages = new HashMap<>();
+			
+			Arrays.fill(this.pages, this.getUniformPage(-1));
+		}
+		
+		/**
+		 * @return <code>-1</code> if <code>c</code> wasn't mapped
+		 */
+		public final int get(final char c) {
+			return this.pages[c >>> PAGE_BITS][c & PAGE_MASK];
+		}
+		
+		public final Lookup put(final CharClass characterClass, final int id) {
+			for (int i = 0; i < characterClass.getRangeCount(); ++i) {
+				final int first = characterClass.getFirst(i);
+				final int last = characterClass.getLast(i);
+				
+				for (int page = first >>> PAGE_BITS; page <= last >>> PAGE_BITS; ++page) {
+					final int pageFirst = page << PAGE_BITS;
+					final int pageLast = pageFirst + PAGE_MASK;
+					
+					if (first <= pageFirst && pageLast <= last) {
+						this.pages[page] = this.getUniformPage(id);
+						this.ownedPages.clear(page);
+					} else {
+						if (!this.ownedPages.get(page)) {
+							this.pages[page] = this.pages[page].clone();
+							this.ownedPages.set(page);
+						}
+						
+						Arrays.fill(this.pages[page], Math.max(first, pageFirst) & PAGE_MASK,
+								(Math.min(last, pageLast) & PAGE_MASK) + 1, id);
+					}
+				}
+			}
+			
+			return this;
+		}
+		
+		private final int[] getUniformPage(final int id) {
+			return this.uniformPages.computeIfAbsent(id, k -> {
+				final int[] result = new int[PAGE_SIZE];
+				
+				Arrays.fill(result, k);
+				
+				return result;
+			});
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = -1253442473580530735L;
+		
+		/**
+		 * {@value}.
+		 */
+		public static final int PAGE_BITS = 8;
+		
+		/**
+		 * {@value}.
+		 */
+		public static final int PAGE_SIZE = 1 << PAGE_BITS;
+		
+		/**
+		 * {@value}.
+		 */
+		public static final int PAGE_MASK = PAGE_SIZE - 1;
+		
+		/**
+		 * {@value}.
+		 */
+		public static final int PAGE_COUNT = (Character.MAX_VALUE + 1) >>> PAGE_BITS;
+		
+	}
+	
+}
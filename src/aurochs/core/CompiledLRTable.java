@@ -0,0 +1,208 @@
+package aurochs.core;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import aurochs.core.Grammar.Rule;
+import aurochs.core.LRTable.Action;
+import aurochs.core.LRTable.Reduce;
+import aurochs.core.LRTable.Shift;
+
+/**
+ * Dense form of an {@link LRTable}: symbols are numbered by the {@link SymbolTable} of the grammar and each cell of the flat
+ * <code>actions</code> array holds an int code (shift, reduce, accept or error).
+ * <br>Columns of nonterminal symbols hold the gotos as shifts.
+ * <br>When a cell of the source table contains several actions, only the first one is kept.
+ *
+ * @author codistmonk (creation 2026-10-17)
+ */
+public final class CompiledLRTable implements Serializable {
+	
+	private final Grammar grammar;
+	
+	private final SymbolTable symbolTable;
+	
+	private final int symbolCount;
+	
+	private final int stateCount;
+	
+	private final int[] actions;
+	
+	private final Action[] shifts;
+	
+	private final Action[] reductions;
+	
+	private final Rule[] rules;
+	
+	private final int[] ruleNonterminalIds;
+	
+	private final int[] ruleSizes;
+	
+	public CompiledLRTable(final LRTable table) {
+		final List<Map<Object, List<Action>>> tableActions = table.getActions();
+		final List<Rule> rules = table.getGrammar().getRules();
+		
+		this.grammar = table.getGrammar();
+		this.symbolTable = this.grammar.getSymbolTable();
+		this.symbolCount = this.symbolTable.getSymbolCount();
+		this.stateCount = tableActions.size();
+		this.actions = new int[this.stateCount * this.symbolCount];
+		this.shifts = new Action[this.stateCount];
+		this.reductions = new Action[rules.size()];
+		this.rules = rules.toArray(new Rule[rules.size()]);
+		this.ruleNonterminalIds = new int[this.rules.length];
+		this.ruleSizes = new int[this.rules.length];
+		
+		for (int stateIndex = 0; stateIndex < this.stateCount; ++stateIndex) {
+			this.shifts[stateIndex] = new Shift(stateIndex);
+			
+			for (final Map.Entry<Object, List<Action>> entry : tableActions.get(stateIndex).entrySet()) {
+				final List<Action> cell = entry.getValue();
+				
+				if (!cell.isEmpty()) {
+					this.actions[stateIndex * this.symbolCount + this.symbolTable.getId(entry.getKey())] =
+							encode(cell.get(0));
+				}
+			}
+		}
+		
+		for (final Rule rule : rules) {
+			final int ruleIndex = rule.getIndex();
+			
+			this.reductions[ruleIndex] = new Reduce(rule);
+			this.ruleNonterminalIds[ruleIndex] = rule.getNonterminalId();
+			this.ruleSizes[ruleIndex] = rule.getDevelopmentIds().length;
+		}
+		
+		this.actions[rules.get(0).getNonterminalId()] = ACCEPT;
+	}
+	
+	public final Grammar getGrammar() {
+		return this.grammar;
+	}
+	
+	public final int getStateCount() {
+		return this.stateCount;
+	}
+	
+	public final int getSymbolCount() {
+		return this.symbolCount;
+	}
+	
+	public final Object getSymbol(final int symbolId) {
+		return this.symbolTable.getSymbol(symbolId);
+	}
+	
+	public final Rule getRule(final int ruleIndex) {
+		return this.rules[ruleIndex];
+	}
+	
+	public final int getRuleNonterminalId(final int ruleIndex) {
+		return this.ruleNonterminalIds[ruleIndex];
+	}
+	
+	public final int getRuleSize(final int ruleIndex) {
+		return this.ruleSizes[ruleIndex];
+	}
+	
+	/**
+	 * @param symbol
+	 * <br>Not null
+	 * @return <code>-1</code> if <code>symbol</code> doesn't appear in the table
+	 */
+	public final int getSymbolId(final Object symbol) {
+		final int result = this.symbolTable.getId(symbol);
+		
+		return result < this.symbolCount ? result : -1;
+	}
+	
+	/**
+	 * Unboxed form of {@link #getSymbolId(Object)} for characters.
+	 * 
+	 * @param character
+	 * <br>A <code>char</code>, or {@link TokenSource#END_OF_CHARACTERS}
+	 * @return <code>-1</code> if <code>character</code> doesn't appear in the table
+	 */
+	public final int getCharacterSymbolId(final int character) {
+		final int result = this.symbolTable.getCharacterId(character);
+		
+		return result < this.symbolCount ? result : -1;
+	}
+	
+	/**
+	 * @return {@link #ERROR} if <code>symbolId</code> is negative
+	 */
+	public final int getAction(final int stateIndex, final int symbolId) {
+		return symbolId < 0 ? ERROR : this.actions[stateIndex * this.symbolCount + symbolId];
+	}
+	
+	/**
+	 * @return The shift or reduction corresponding to <code>action</code>,
+	 * or <code>null</code> for {@link #ACCEPT} and {@link #ERROR}
+	 */
+	public final Action getActionObject(final int action) {
+		switch (getType(action)) {
+		case SHIFT:
+			return this.shifts[getOperand(action)];
+		case REDUCE:
+			return this.reductions[getOperand(action)];
+		default:
+			return null;
+		}
+	}
+	
+	/**
+	 * {@value}.
+	 */
+	private static final long serialVersionUID = 2915768367421306337L;
+	
+	/**
+	 * {@value}.
+	 */
+	public static final int ERROR = 0;
+	
+	/**
+	 * {@value}.
+	 */
+	public static final int SHIFT = 1;
+	
+	/**
+	 * {@value}.
+	 */
+	public static final int REDUCE = 2;
+	
+	/**
+	 * {@value}.
+	 */
+	public static final int ACCEPT = 3;
+	
+	public static final int shift(final int stateIndex) {
+		return (stateIndex << 2) | SHIFT;
+	}
+	
+	public static final int reduce(final int ruleIndex) {
+		return (ruleIndex << 2) | REDUCE;
+	}
+	
+	public static final int getType(final int action) {
+		return action & 3;
+	}
+	
+	public static final int getOperand(final int action) {
+		return action >>> 2;
+	}
+	
+	public static final int encode(final Action action) {
+		if (action instanceof Shift) {
+			return shift(((Shift) action).getNextStateIndex());
+		}
+		
+		if (action instanceof Reduce) {
+			return reduce(((Reduce) action).getRuleIndex());
+		}
+		
+		throw new IllegalArgumentException("Unsupported action: " + action);
+	}
+	
+}
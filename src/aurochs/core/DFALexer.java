@@ -0,0 +1,552 @@
+package aurochs.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+import aurochs.core.Grammar.Rule;
+import aurochs.core.Grammar.RuleAction;
+import aurochs.core.Lexer.Token;
+import aurochs.core.LexerBuilder.Declaration;
+import aurochs.core.LexerBuilder.OneOrMore;
+import aurochs.core.LexerBuilder.Regular;
+import aurochs.core.LexerBuilder.Sequence;
+import aurochs.core.LexerBuilder.TokenGenerator;
+import aurochs.core.LexerBuilder.Union;
+import aurochs.core.LexerBuilder.ZeroOrMore;
+import aurochs.core.LexerBuilder.ZeroOrOne;
+
+/**
+ * Lexer running a minimized DFA compiled from the declarations of a {@link LexerBuilder}.
+ * <br>Each token is the longest match; when several declarations match the same text, the first one wins.
+ * <br>Tokens are created by the actions of the declared rules, which receive the matched text as their only datum.
+ * <br>Definitions must not be recursive (zeroOrMore and oneOrMore must be used instead).
+ *
+ * @author codistmonk (creation 2026-10-17)
+ */
+public final class DFALexer implements Serializable {
+	
+	private final Rule[] rules;
+	
+	private final boolean[] skips;
+	
+	private final CharClass.Lookup classes;
+	
+	private final int classCount;
+	
+	private final int[] transitions;
+	
+	private final int[] acceptedDeclarations;
+	
+	public DFALexer(final LexerBuilder lexerBuilder) {
+		final List<Declaration> declarations = lexerBuilder.getDeclarations();
+		final int declarationCount = declarations.size();
+		final NFA nfa = new NFA(lexerBuilder.getDefinitions());
+		
+		this.rules = new Rule[declarationCount];
+		this.skips = new boolean[declarationCount];
+		
+		for (int i = 0; i < declarationCount; ++i) {
+			final Declaration declaration = declarations.get(i);
+			final int start = nfa.newState();
+			
+			nfa.addEpsilon(0, start);
+			nfa.accept(nfa.appendSequence(declaration.getDevelopment(), start), i);
+			
+			this.rules[i] = declaration.getRule();
+			this.skips[i] = declaration.isSkip();
+		}
+		
+		final List<CharClass> alphabet = CharClass.partition(nfa.getCharacterClasses());
+		
+		this.classes = new CharClass.Lookup();
+		this.classCount = alphabet.size();
+		
+		for (int i = 0; i < this.classCount; ++i) {
+			this.classes.put(alphabet.get(i), i);
+		}
+		
+		final List<int[]> dfaTransitions = new ArrayList<>();
+		final List<Integer> dfaAccepts = new ArrayList<>();
+		
+		{
+			final Map<BitSet, Integer> dfaStates = new HashMap<>();
+			final List<BitSet> todo = new ArrayList<>();
+			final BitSet initial = new BitSet();
+			
+			initial.set(0);
+			nfa.close(initial);
+			dfaStates.put(initial, 0);
+			todo.add(initial);
+			
+			for (int i = 0; i < todo.size(); ++i) {
+				final BitSet nfaStates = todo.get(i);
+				final int[] row = new int[this.classCount];
+				
+				for (int c = 0; c < this.classCount; ++c) {
+					final BitSet next = nfa.move(nfaStates, alphabet.get(c));
+					
+					if (next.isEmpty()) {
+						row[c] = -1;
+					} else {
+						nfa.close(next);
+						
+						final Integer existing = dfaStates.putIfAbsent(next, todo.size());
+						
+						if (existing == null) {
+							row[c] = todo.size();
+							todo.add(next);
+						} else {
+							row[c] = existing;
+						}
+					}
+				}
+				
+				dfaTransitions.add(row);
+				dfaAccepts.add(nfa.getAcceptedDeclaration(nfaStates));
+			}
+		}
+		
+		final int[] blocks = minimize(dfaTransitions, dfaAccepts);
+		final int blockCount = Arrays.stream(blocks).max().getAsInt() + 1;
+		
+		this.transitions = new int[blockCount * this.classCount];
+		this.acceptedDeclarations = new int[blockCount];
+		
+		for (int state = 0; state < blocks.length; ++state) {
+			final int block = blocks[state];
+			final int[] row = dfaTransitions.get(state);
+			
+			for (int c = 0; c < this.classCount; ++c) {
+				this.transitions[block * this.classCount + c] = row[c] < 0 ? -1 : blocks[row[c]];
+			}
+			
+			this.acceptedDeclarations[block] = dfaAccepts.get(state);
+		}
+	}
+	
+	public final int getStateCount() {
+		return this.acceptedDeclarations.length;
+	}
+	
+	/**
+	 * @return The generated tokens (excluding skipped ones) in declaration order
+	 */
+	public final Collection<Object> getTokens() {
+		final Collection<Object> result = new LinkedHashSet<>();
+		
+		for (int i = 0; i < this.rules.length; ++i) {
+			if (!this.skips[i]) {
+				result.add(this.rules[i].getNonterminal());
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @return <code>-1</code> if <code>c</code> doesn't appear in any declaration
+	 */
+	public final int getCharacterClass(final char c) {
+		return this.classes.get(c);
+	}
+	
+	/**
+	 * @return The next state, or <code>-1</code>
+	 */
+	public final int getNextState(final int state, final char c) {
+		final int characterClass = this.getCharacterClass(c);
+		
+		return characterClass < 0 ? -1 : this.transitions[state * this.classCount + characterClass];
+	}
+	
+	/**
+	 * @return The index of the declaration accepted in <code>state</code>, or <code>-1</code>
+	 */
+	public final int getAcceptedDeclaration(final int state) {
+		return this.acceptedDeclarations[state];
+	}
+	
+	/**
+	 * Translation stops at the end of <code>input</code> or before the first character that doesn't start a token.
+	 */
+	public final TokenSource<Token> translate(final TokenSource<?> input) {
+		return new TokenSource<>(new Iterator<Token>() {
+			
+			private final StringBuilder pending = new StringBuilder();
+			
+			private long[] pendingOffsets = new long[16];
+			
+			private Token next;
+			
+			private boolean done;
+			
+			@Override
+			public final boolean hasNext() {
+				if (this.next == null && !this.done) {
+					this.next = this.computeNext();
+					this.done = this.next == null;
+				}
+				
+				return this.next != null;
+			}
+			
+			@Override
+			public final Token next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				
+				final Token result = this.next;
+				
+				this.next = null;
+				
+				return result;
+			}
+			
+			private final Token computeNext() {
+				final DFALexer lexer = DFALexer.this;
+				final StringBuilder pending = this.pending;
+				
+				while (0 < pending.length() || this.fill()) {
+					int state = 0;
+					int acceptedDeclaration = -1;
+					int acceptedLength = 0;
+					
+					for (int i = 0; i < pending.length() || this.fill(); ++i) {
+						state = lexer.getNextState(state, pending.charAt(i));
+						
+						if (state < 0) {
+							break;
+						}
+						
+						if (0 <= lexer.getAcceptedDeclaration(state)) {
+							acceptedDeclaration = lexer.getAcceptedDeclaration(state);
+							acceptedLength = i + 1;
+						}
+					}
+					
+					if (acceptedDeclaration < 0) {
+						return null;
+					}
+					
+					final String text = pending.substring(0, acceptedLength);
+					final long start = this.pendingOffsets[0];
+					final long end = acceptedLength < pending.length() ?
+							this.pendingOffsets[acceptedLength] : input.getOffset();
+					
+					pending.delete(0, acceptedLength);
+					System.arraycopy(this.pendingOffsets, acceptedLength, this.pendingOffsets, 0, pending.length());
+					
+					if (!lexer.skips[acceptedDeclaration]) {
+						return lexer.newToken(acceptedDeclaration, text).setSpan(start, end);
+					}
+				}
+				
+				return null;
+			}
+			
+			private final boolean fill() {
+				final int c = input.readCharacter();
+				
+				if (c == TokenSource.END_OF_CHARACTERS) {
+					return false;
+				}
+				
+				final int n = this.pending.length();
+				
+				if (n == this.pendingOffsets.length) {
+					this.pendingOffsets = Arrays.copyOf(this.pendingOffsets, 2 * n);
+				}
+				
+				this.pending.append((char) c);
+				this.pendingOffsets[n] = input.getOffset();
+				
+				return true;
+			}
+			
+		});
+	}
+	
+	final Token newToken(final int declaration, final String text) {
+		final Rule rule = this.rules[declaration];
+		final RuleAction action = rule.getAction();
+		
+		if (action instanceof TokenGenerator) {
+			return (Token) action.execute(rule, new Object[] { text });
+		}
+		
+		return new Token(rule.getNonterminal(), text);
+	}
+	
+	/**
+	 * {@value}.
+	 */
+	private static final long serialVersionUID = -6013547541874853245L;
+	
+	/**
+	 * Moore's partition refinement.
+	 *
+	 * @return The block of each state; the block of state 0 is 0
+	 */
+	static final int[] minimize(final List<int[]> transitions, final List<Integer> accepts) {
+		final int n = transitions.size();
+		int[] blocks = new int[n];
+		int blockCount = renumber(n, state -> Arrays.asList(accepts.get(state)), blocks);
+		
+		while (true) {
+			final int[] previousBlocks = blocks;
+			final int[] newBlocks = new int[n];
+			final int newBlockCount = renumber(n, state -> {
+				final int[] row = transitions.get(state);
+				final List<Integer> signature = new ArrayList<>(row.length + 1);
+				
+				signature.add(previousBlocks[state]);
+				
+				for (final int target : row) {
+					signature.add(target < 0 ? -1 : previousBlocks[target]);
+				}
+				
+				return signature;
+			}, newBlocks);
+			
+			blocks = newBlocks;
+			
+			if (newBlockCount == blockCount) {
+				return blocks;
+			}
+			
+			blockCount = newBlockCount;
+		}
+	}
+	
+	private static final int renumber(final int n, final IntFunction<List<Integer>> signatures,
+			final int[] blocks) {
+		final Map<List<Integer>, Integer> blockIds = new HashMap<>();
+		
+		for (int state = 0; state < n; ++state) {
+			final Integer existing = blockIds.putIfAbsent(signatures.apply(state), blockIds.size());
+			
+			blocks[state] = existing == null ? blockIds.size() - 1 : existing;
+		}
+		
+		return blockIds.size();
+	}
+	
+	/**
+	 * Thompson construction; state 0 is the initial state.
+	 *
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	static final class NFA implements Serializable {
+		
+		private final Map<Object, List<Object[]>> definitions;
+		
+		private final List<List<Integer>> epsilons;
+		
+		private final List<List<Object[]>> edges;
+		
+		private final Map<Integer, Integer> accepts;
+		
+		private final Collection<CharClass> characterClasses;
+		
+		private final Collection<Object> expanding;
+		
+		NFA(final Map<Object, List<Object[]>> definitions) {
+			this.definitions = definitions;
+			this.epsilons = new ArrayList<>();
+			this.edges = new ArrayList<>();
+			this.accepts = new HashMap<>();
+			this.characterClasses = new LinkedHashSet<>();
+			this.expanding = new ArrayList<>();
+			
+			this.newState();
+		}
+		
+		final Collection<CharClass> getCharacterClasses() {
+			return this.characterClasses;
+		}
+		
+		final int newState() {
+			this.epsilons.add(new ArrayList<>());
+			this.edges.add(new ArrayList<>());
+			
+			return this.epsilons.size() - 1;
+		}
+		
+		final void addEpsilon(final int source, final int target) {
+			this.epsilons.get(source).add(target);
+		}
+		
+		final void accept(final int state, final int declaration) {
+			this.accepts.merge(state, declaration, Math::min);
+		}
+		
+		/**
+		 * @return The end state
+		 */
+		final int appendSequence(final Object[] symbols, final int start) {
+			int result = start;
+			
+			for (final Object symbol : symbols) {
+				result = this.append(symbol, result);
+			}
+			
+			return result;
+		}
+		
+		/**
+		 * @return The end state
+		 */
+		final int append(final Object symbol, final int start) {
+			final CharClass characterClass = CharClass.toCharClass(symbol);
+			
+			if (characterClass != null) {
+				final int result = this.newState();
+				
+				this.edges.get(start).add(new Object[] { characterClass, result });
+				this.characterClasses.add(characterClass);
+				
+				return result;
+			}
+			
+			if (symbol instanceof Sequence) {
+				return this.appendSequence(((Sequence) symbol).getSymbols(), start);
+			}
+			
+			if (symbol instanceof Union) {
+				return this.appendUnion(Arrays.stream(((Union) symbol).getSymbols())
+						.map(s -> new Object[] { s }).toArray(Object[][]::new), start);
+			}
+			
+			if (symbol instanceof ZeroOrOne) {
+				final int result = this.newState();
+				
+				this.addEpsilon(start, result);
+				this.addEpsilon(this.append(((ZeroOrOne) symbol).getSymbol(), start), result);
+				
+				return result;
+			}
+			
+			if (symbol instanceof ZeroOrMore || symbol instanceof OneOrMore) {
+				final int loop = this.newState();
+				final int result = this.newState();
+				final Object body = symbol instanceof ZeroOrMore ?
+						((ZeroOrMore) symbol).getSymbol() : ((OneOrMore) symbol).getSymbol();
+				final int bodyEnd = this.append(body, loop);
+				
+				this.addEpsilon(start, loop);
+				this.addEpsilon(bodyEnd, loop);
+				this.addEpsilon(bodyEnd, result);
+				
+				if (symbol instanceof ZeroOrMore) {
+					this.addEpsilon(loop, result);
+				}
+				
+				return result;
+			}
+			
+			if (symbol instanceof Regular) {
+				throw new IllegalArgumentException("Unsupported regular construct: " + symbol);
+			}
+			
+			final List<Object[]> developments = this.definitions.get(symbol);
+			
+			if (developments == null) {
+				throw new IllegalArgumentException("Undefined symbol: " + symbol);
+			}
+			
+			if (this.expanding.contains(symbol)) {
+				throw new IllegalArgumentException("Recursive definition: " + symbol);
+			}
+			
+			this.expanding.add(symbol);
+			
+			try {
+				return this.appendUnion(developments.toArray(new Object[developments.size()][]), start);
+			} finally {
+				this.expanding.remove(symbol);
+			}
+		}
+		
+		private final int appendUnion(final Object[][] sequences, final int start) {
+			final int result = this.newState();
+			
+			for (final Object[] sequence : sequences) {
+				final int branch = this.newState();
+				
+				this.addEpsilon(start, branch);
+				this.addEpsilon(this.appendSequence(sequence, branch), result);
+			}
+			
+			return result;
+		}
+		
+		final void close(final BitSet states) {
+			final List<Integer> todo = new ArrayList<>();
+			
+			states.stream().forEach(todo::add);
+			
+			while (!todo.isEmpty()) {
+				for (final int target : this.epsilons.get(todo.remove(todo.size() - 1))) {
+					if (!states.get(target)) {
+						states.set(target);
+						todo.add(target);
+					}
+				}
+			}
+		}
+		
+		/**
+		 * @param atom
+		 * <br>An element of the partition of the character classes of this NFA
+		 */
+		final BitSet move(final BitSet states, final CharClass atom) {
+			final char c = atom.getFirst(0);
+			final BitSet result = new BitSet();
+			
+			for (int state = states.nextSetBit(0); 0 <= state; state = states.nextSetBit(state + 1)) {
+				for (final Object[] edge : this.edges.get(state)) {
+					if (((CharClass) edge[0]).contains(c)) {
+						result.set((Integer) edge[1]);
+					}
+				}
+			}
+			
+			return result;
+		}
+		
+		/**
+		 * @return <code>-1</code> if none of <code>states</code> is accepting
+		 */
+		final int getAcceptedDeclaration(final BitSet states) {
+			int result = -1;
+			
+			for (int state = states.nextSetBit(0); 0 <= state; state = states.nextSetBit(state + 1)) {
+				final Integer declaration = this.accepts.get(state);
+				
+				if (declaration != null && (result < 0 || declaration < result)) {
+					result = declaration;
+				}
+			}
+			
+			return result;
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = 5431930620066412856L;
+		
+	}
+	
+}
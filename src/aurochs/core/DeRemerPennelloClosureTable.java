@@ -0,0 +1,434 @@
+package aurochs.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import aurochs.core.Grammar.Rule;
+import aurochs.core.LALR1ClosureTable.KernelCore;
+
+/**
+ * LALR(1) closure table whose lookaheads are computed with the relations of DeRemer and Pennello
+ * (reads, includes and lookback) instead of item-to-item propagation.
+ * <br>States are numbered like in {@link LALR1ClosureTable}, so both produce the same {@link LRTable}.
+ *
+ * @author codistmonk (creation 2026-10-17)
+ */
+public final class DeRemerPennelloClosureTable implements ClosureTable {
+	
+	private final Grammar grammar;
+	
+	private final List<State> states;
+	
+	public DeRemerPennelloClosureTable(final Grammar grammar) {
+		this.grammar = grammar;
+		this.states = new ArrayList<>();
+		
+		final List<Rule> rules = grammar.getRules();
+		final SymbolTable symbolTable = grammar.getSymbolTable();
+		final BitSet collapsables = grammar.getCollapsableIds();
+		final int[][] rulesByNonterminal = grammar.getRuleIndicesByNonterminalId();
+		final int[] collapsableSuffixStarts = new int[rules.size()];
+		
+		for (final Rule rule : rules) {
+			final int[] development = rule.getDevelopmentIds();
+			int i = development.length;
+			
+			while (0 < i && collapsables.get(development[i - 1])) {
+				--i;
+			}
+			
+			collapsableSuffixStarts[rule.getIndex()] = i;
+		}
+		
+		{
+			final Map<KernelCore, Integer> stateIndices = new HashMap<>();
+			final KernelCore initialKernel = new KernelCore(new int[] { 0, 0 });
+			
+			stateIndices.put(initialKernel, 0);
+			this.states.add(new State(grammar, initialKernel.getRuleAndCursorIndices()));
+			
+			for (int i = 0; i < this.states.size(); ++i) {
+				final State state = this.states.get(i);
+				final Map<Integer, int[]> nextKernels = state.computeNextKernels(grammar);
+				final int n = nextKernels.size();
+				int j = 0;
+				
+				state.transitionSymbols = new int[n];
+				state.transitionTargets = new int[n];
+				
+				for (final Map.Entry<Integer, int[]> entry : nextKernels.entrySet()) {
+					final int[] kernel = entry.getValue();
+					final Integer existingStateIndex = stateIndices.putIfAbsent(
+							new KernelCore(kernel), this.states.size());
+					
+					state.transitionSymbols[j] = entry.getKey();
+					
+					if (existingStateIndex != null) {
+						state.transitionTargets[j] = existingStateIndex;
+					} else {
+						state.transitionTargets[j] = this.states.size();
+						this.states.add(new State(grammar, kernel));
+					}
+					
+					state.getTransitions().put(symbolTable.getSymbol(entry.getKey()), state.transitionTargets[j]);
+					++j;
+				}
+			}
+		}
+		
+		final int stateCount = this.states.size();
+		final int[] firstTransitionIds = new int[stateCount + 1];
+		
+		for (int i = 0; i < stateCount; ++i) {
+			firstTransitionIds[i + 1] = firstTransitionIds[i] + this.states.get(i).transitionSymbols.length;
+		}
+		
+		final int initialNonterminal = rules.get(0).getNonterminalId();
+		final int initialTransitionId;
+		
+		{
+			final int existingTransitionId = this.getTransitionId(firstTransitionIds, 0, initialNonterminal);
+			
+			initialTransitionId = 0 <= existingTransitionId ? existingTransitionId : firstTransitionIds[stateCount];
+		}
+		
+		final int transitionCount = Math.max(firstTransitionIds[stateCount], initialTransitionId + 1);
+		final BitSet[] follows = new BitSet[transitionCount];
+		final int[][] reads = new int[transitionCount][];
+		final List<List<Integer>> includes = new ArrayList<>(transitionCount);
+		
+		for (int i = 0; i < transitionCount; ++i) {
+			follows[i] = new BitSet();
+			reads[i] = NO_EDGE;
+			includes.add(new ArrayList<>());
+		}
+		
+		for (int i = 0; i < stateCount; ++i) {
+			final State state = this.states.get(i);
+			final int n = state.transitionSymbols.length;
+			
+			for (int j = 0; j < n; ++j) {
+				if (symbolTable.isNonterminal(state.transitionSymbols[j])) {
+					final State target = this.states.get(state.transitionTargets[j]);
+					final int m = target.transitionSymbols.length;
+					final List<Integer> targetReads = new ArrayList<>();
+					
+					for (int k = 0; k < m; ++k) {
+						final int symbol = target.transitionSymbols[k];
+						
+						if (!symbolTable.isNonterminal(symbol)) {
+							follows[firstTransitionIds[i] + j].set(symbol);
+						} else if (collapsables.get(symbol)) {
+							targetReads.add(firstTransitionIds[state.transitionTargets[j]] + k);
+						}
+					}
+					
+					reads[firstTransitionIds[i] + j] = toArray(targetReads);
+				}
+			}
+		}
+		
+		follows[initialTransitionId].set(symbolTable.getId(Grammar.Special.END));
+		
+		digraph(reads, follows);
+		
+		final List<int[]> lookbacks = new ArrayList<>();
+		
+		for (int i = 0; i < stateCount; ++i) {
+			final State state = this.states.get(i);
+			final int n = state.transitionSymbols.length;
+			
+			for (int j = 0; j <= n; ++j) {
+				final int nonterminal;
+				final int transitionId;
+				
+				if (j < n) {
+					nonterminal = state.transitionSymbols[j];
+					transitionId = firstTransitionIds[i] + j;
+					
+					if (!symbolTable.isNonterminal(nonterminal) || transitionId == initialTransitionId) {
+						continue;
+					}
+				} else if (i == 0) {
+					nonterminal = initialNonterminal;
+					transitionId = initialTransitionId;
+				} else {
+					break;
+				}
+				
+				for (final int ruleIndex : rulesByNonterminal[nonterminal]) {
+					final int[] development = rules.get(ruleIndex).getDevelopmentIds();
+					final int m = development.length;
+					int stateIndex = i;
+					
+					for (int k = 0; k < m; ++k) {
+						final int symbol = development[k];
+						final int symbolTransitionId = this.getTransitionId(firstTransitionIds, stateIndex, symbol);
+						
+						if (symbolTable.isNonterminal(symbol) && collapsableSuffixStarts[ruleIndex] <= k + 1) {
+							includes.get(symbolTransitionId).add(transitionId);
+						}
+						
+						stateIndex = this.states.get(stateIndex).getTarget(symbol);
+					}
+					
+					lookbacks.add(new int[] { stateIndex, ruleIndex, transitionId });
+				}
+			}
+		}
+		
+		{
+			final int[][] includeEdges = new int[transitionCount][];
+			
+			for (int i = 0; i < transitionCount; ++i) {
+				includeEdges[i] = toArray(includes.get(i));
+			}
+			
+			digraph(includeEdges, follows);
+		}
+		
+		for (final int[] lookback : lookbacks) {
+			this.states.get(lookback[0]).getReductionLookAheads(lookback[1], symbolTable.getSymbolCount())
+					.or(follows[lookback[2]]);
+		}
+	}
+	
+	@Override
+	public final Grammar getGrammar() {
+		return this.grammar;
+	}
+	
+	@Override
+	public final List<State> getStates() {
+		return this.states;
+	}
+	
+	private final int getTransitionId(final int[] firstTransitionIds, final int stateIndex, final int symbol) {
+		final int i = Arrays.binarySearch(this.states.get(stateIndex).transitionSymbols, symbol);
+		
+		return 0 <= i ? firstTransitionIds[stateIndex] + i : -1;
+	}
+	
+	/**
+	 * {@value}.
+	 */
+	private static final long serialVersionUID = -2387425512359542151L;
+	
+	static final int[] NO_EDGE = {};
+	
+	static final int[] toArray(final List<Integer> list) {
+		return list.isEmpty() ? NO_EDGE : list.stream().mapToInt(Integer::intValue).toArray();
+	}
+	
+	/**
+	 * Sets each <code>values[x]</code> to the union of the initial <code>values[y]</code>
+	 * for all <code>y</code> reachable from <code>x</code> through <code>edges</code>.
+	 * <br>Strongly connected components are collapsed as in DeRemer and Pennello's <em>Digraph</em>,
+	 * using an explicit stack instead of recursion.
+	 */
+	public static final void digraph(final int[][] edges, final BitSet[] values) {
+		final int n = edges.length;
+		final int[] depths = new int[n];
+		final int[] initialDepths = new int[n];
+		final int[] componentStack = new int[n];
+		final int[] callStack = new int[n];
+		final int[] nextEdges = new int[n];
+		int componentStackSize = 0;
+		
+		for (int start = 0; start < n; ++start) {
+			if (depths[start] != 0) {
+				continue;
+			}
+			
+			int callStackSize = 0;
+			
+			componentStack[componentStackSize++] = start;
+			depths[start] = initialDepths[start] = componentStackSize;
+			nextEdges[start] = 0;
+			callStack[callStackSize++] = start;
+			
+			while (0 < callStackSize) {
+				final int x = callStack[callStackSize - 1];
+				
+				if (nextEdges[x] < edges[x].length) {
+					final int y = edges[x][nextEdges[x]++];
+					
+					if (depths[y] == 0) {
+						componentStack[componentStackSize++] = y;
+						depths[y] = initialDepths[y] = componentStackSize;
+						nextEdges[y] = 0;
+						callStack[callStackSize++] = y;
+					} else {
+						depths[x] = Math.min(depths[x], depths[y]);
+						values[x].or(values[y]);
+					}
+					
+					continue;
+				}
+				
+				--callStackSize;
+				
+				if (depths[x] == initialDepths[x]) {
+					int y;
+					
+					do {
+						y = componentStack[--componentStackSize];
+						depths[y] = Integer.MAX_VALUE;
+						
+						if (y != x) {
+							values[y].or(values[x]);
+						}
+					} while (y != x);
+				}
+				
+				if (0 < callStackSize) {
+					final int parent = callStack[callStackSize - 1];
+					
+					depths[parent] = Math.min(depths[parent], depths[x]);
+					values[parent].or(values[x]);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public final class State implements ClosureTable.State {
+		
+		private final int[] items;
+		
+		private final Map<Object, Integer> transitions;
+		
+		private final Map<Integer, BitSet> reductionLookAheads;
+		
+		int[] transitionSymbols;
+		
+		int[] transitionTargets;
+		
+		/**
+		 * @param kernel
+		 * <br>Pairs of rule and cursor indices sorted by rule index then cursor index
+		 */
+		public State(final Grammar grammar, final int[] kernel) {
+			final List<Rule> rules = grammar.getRules();
+			final int[][] closures = grammar.getClosureRuleIndicesByNonterminalId();
+			final BitSet closureRules = new BitSet(rules.size());
+			
+			for (int i = 0; i < kernel.length; i += 2) {
+				final int[] development = rules.get(kernel[i]).getDevelopmentIds();
+				final int cursorIndex = kernel[i + 1];
+				
+				if (cursorIndex < development.length) {
+					for (final int ruleIndex : closures[development[cursorIndex]]) {
+						closureRules.set(ruleIndex);
+					}
+				}
+			}
+			
+			for (int i = 0; i < kernel.length; i += 2) {
+				if (kernel[i + 1] == 0) {
+					closureRules.clear(kernel[i]);
+				}
+			}
+			
+			this.items = Arrays.copyOf(kernel, kernel.length + 2 * closureRules.cardinality());
+			this.transitions = new HashMap<>();
+			this.reductionLookAheads = new TreeMap<>();
+			
+			int i = kernel.length;
+			
+			for (int ruleIndex = closureRules.nextSetBit(0); 0 <= ruleIndex;
+					ruleIndex = closureRules.nextSetBit(ruleIndex + 1)) {
+				this.items[i] = ruleIndex;
+				i += 2;
+			}
+		}
+		
+		/**
+		 * @return Pairs of rule and cursor indices, kernel first
+		 */
+		public final int[] getItems() {
+			return this.items;
+		}
+		
+		/**
+		 * @return Kernels keyed by symbol id in ascending order
+		 */
+		public final Map<Integer, int[]> computeNextKernels(final Grammar grammar) {
+			final List<Rule> rules = grammar.getRules();
+			final Map<Integer, List<Long>> nextItems = new TreeMap<>();
+			
+			for (int i = 0; i < this.items.length; i += 2) {
+				final int[] development = rules.get(this.items[i]).getDevelopmentIds();
+				final int cursorIndex = this.items[i + 1];
+				
+				if (cursorIndex < development.length) {
+					nextItems.computeIfAbsent(development[cursorIndex], k -> new ArrayList<>()).add(
+							((long) this.items[i] << 32) | (cursorIndex + 1));
+				}
+			}
+			
+			final Map<Integer, int[]> result = new TreeMap<>();
+			
+			for (final Map.Entry<Integer, List<Long>> entry : nextItems.entrySet()) {
+				final long[] sortedItems = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+				final int n = sortedItems.length;
+				final int[] kernel = new int[2 * n];
+				
+				for (int i = 0; i < n; ++i) {
+					kernel[2 * i + 0] = (int) (sortedItems[i] >>> 32);
+					kernel[2 * i + 1] = (int) sortedItems[i];
+				}
+				
+				result.put(entry.getKey(), kernel);
+			}
+			
+			return result;
+		}
+		
+		public final int getTarget(final int symbol) {
+			return this.transitionTargets[Arrays.binarySearch(this.transitionSymbols, symbol)];
+		}
+		
+		final BitSet getReductionLookAheads(final int ruleIndex, final int symbolCount) {
+			return this.reductionLookAheads.computeIfAbsent(ruleIndex, k -> new BitSet(symbolCount));
+		}
+		
+		@Override
+		public final Map<Object, Integer> getTransitions() {
+			return this.transitions;
+		}
+		
+		@Override
+		public final Map<Object, Collection<Integer>> getReductions() {
+			final SymbolTable symbolTable = DeRemerPennelloClosureTable.this.getGrammar().getSymbolTable();
+			final Map<Object, Collection<Integer>> result = new HashMap<>();
+			
+			for (final Map.Entry<Integer, BitSet> entry : this.reductionLookAheads.entrySet()) {
+				final BitSet lookAheads = entry.getValue();
+				
+				for (int id = lookAheads.nextSetBit(0); 0 <= id; id = lookAheads.nextSetBit(id + 1)) {
+					result.computeIfAbsent(symbolTable.getSymbol(id), k -> new TreeSet<>()).add(entry.getKey());
+				}
+			}
+			
+			return result;
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = -3299452627398087264L;
+		
+	}
+	
+}
@@ -3,6 +3,7 @@ package aurochs.core;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -17,16 +18,32 @@ public final class Grammar implements Serializable {
 	
 	private final List<Rule> rules = new ArrayList<>();
 	
+	private final SymbolTable symbolTable = new SymbolTable();
+	
 	private final Set<Object> nonterminals = new HashSet<>();
 	
 	private final Set<Object> collapsables = new HashSet<>();
 	
+	private BitSet[] firstIds;
+	
+	private BitSet collapsableIds;
+	
 	private Map<Object, Collection<Object>> firsts;
 	
+	private int[][] ruleIndicesByNonterminalId;
+	
+	private int[][] closureRuleIndicesByNonterminalId;
+	
+	private boolean frozen;
+	
 	public final List<Rule> getRules() {
 		return this.rules;
 	}
 	
+	public final SymbolTable getSymbolTable() {
+		return this.symbolTable;
+	}
+	
 	public final Set<Object> getNonterminals() {
 		return this.nonterminals;
 	}
@@ -37,11 +54,45 @@ public final class Grammar implements Serializable {
 	
 	public final Map<Object, Collection<Object>> getFirsts() {
 		if (this.firsts == null) {
-			final Set<Object> nonterminals = this.getNonterminals();
-			this.firsts = new HashMap<>();
+			final BitSet[] firstIds = this.getFirstIds();
+			final Map<Object, Collection<Object>> firsts = new HashMap<>();
+			
+			for (final Object nonterminal : this.getNonterminals()) {
+				final Collection<Object> nonterminalFirsts = new HashSet<>();
+				final BitSet ids = firstIds[this.symbolTable.getId(nonterminal)];
+				
+				for (int id = ids.nextSetBit(0); 0 <= id; id = ids.nextSetBit(id + 1)) {
+					nonterminalFirsts.add(this.symbolTable.getSymbol(id));
+				}
+				
+				firsts.put(nonterminal, nonterminalFirsts);
+			}
+			
+			this.firsts = firsts;
+		}
+		
+		return this.firsts;
+	}
+	
+	/**
+	 * Computing the firsts freezes the grammar.
+	 * 
+	 * @return The terminal ids that can start each nonterminal, indexed by symbol id
+	 * (<code>null</code> for terminals)
+	 */
+	public final BitSet[] getFirstIds() {
+		if (this.firstIds == null) {
+			this.freeze();
+			
+			final SymbolTable symbolTable = this.getSymbolTable();
+			final int symbolCount = symbolTable.getSymbolCount();
+			final BitSet[] firstIds = new BitSet[symbolCount];
+			final BitSet collapsableIds = new BitSet(symbolCount);
 			
-			for (final Object nonterminal: nonterminals) {
-				this.firsts.put(nonterminal, new HashSet<>());
+			for (int id = 0; id < symbolCount; ++id) {
+				if (symbolTable.isNonterminal(id)) {
+					firstIds[id] = new BitSet(symbolCount);
+				}
 			}
 			
 			boolean notDone;
@@ -50,40 +101,152 @@ public final class Grammar implements Serializable {
 				notDone = false;
 				
 				for (final Rule rule : this.getRules()) {
-					final Object nonterminal = rule.getNonterminal();
-					final Object[] development = rule.getDevelopment();
+					final int nonterminal = rule.getNonterminalId();
+					final int[] development = rule.getDevelopmentIds();
 					final int n = development.length;
-					final Collection<Object> nonterminalFirsts = this.firsts.get(nonterminal);
+					final BitSet nonterminalFirsts = firstIds[nonterminal];
+					final int oldCardinality = nonterminalFirsts.cardinality();
 					int i;
 					
 					for (i = 0; i < n; ++i) {
-						final Object symbol = development[i];
-						final boolean symbolIsTerminal = !nonterminals.contains(symbol);
+						final int symbol = development[i];
 						
-						if (symbolIsTerminal) {
-							notDone |= nonterminalFirsts.add(symbol);
+						if (!symbolTable.isNonterminal(symbol)) {
+							nonterminalFirsts.set(symbol);
 							break;
 						}
 						
-						notDone |= nonterminalFirsts.addAll(this.firsts.get(symbol));
+						nonterminalFirsts.or(firstIds[symbol]);
 						
-						if (!this.collapsables.contains(symbol)) {
+						if (!collapsableIds.get(symbol)) {
 							break;
 						}
 					}
 					
-					if (i == n) {
-						notDone |= this.collapsables.add(nonterminal);
+					notDone |= oldCardinality != nonterminalFirsts.cardinality();
+					
+					if (i == n && !collapsableIds.get(nonterminal)) {
+						collapsableIds.set(nonterminal);
+						notDone = true;
 					}
 				}
 			} while (notDone);
+			
+			for (int id = collapsableIds.nextSetBit(0); 0 <= id; id = collapsableIds.nextSetBit(id + 1)) {
+				this.collapsables.add(symbolTable.getSymbol(id));
+			}
+			
+			this.collapsableIds = collapsableIds;
+			this.firstIds = firstIds;
 		}
 		
-		return this.firsts;
+		return this.firstIds;
+	}
+	
+	/**
+	 * Computing the collapsables freezes the grammar.
+	 */
+	public final BitSet getCollapsableIds() {
+		this.getFirstIds();
+		
+		return this.collapsableIds;
+	}
+	
+	/**
+	 * Computing the index freezes the grammar.
+	 * 
+	 * @return The indices of the rules of each nonterminal, indexed by symbol id
+	 * (empty for terminals)
+	 */
+	public final int[][] getRuleIndicesByNonterminalId() {
+		if (this.ruleIndicesByNonterminalId == null) {
+			this.freeze();
+			
+			final int symbolCount = this.getSymbolTable().getSymbolCount();
+			final int[] ruleCounts = new int[symbolCount];
+			final int[][] result = new int[symbolCount][];
+			
+			for (final Rule rule : this.getRules()) {
+				++ruleCounts[rule.getNonterminalId()];
+			}
+			
+			for (int id = 0; id < symbolCount; ++id) {
+				result[id] = new int[ruleCounts[id]];
+				ruleCounts[id] = 0;
+			}
+			
+			for (final Rule rule : this.getRules()) {
+				final int nonterminal = rule.getNonterminalId();
+				
+				result[nonterminal][ruleCounts[nonterminal]++] = rule.getIndex();
+			}
+			
+			this.ruleIndicesByNonterminalId = result;
+		}
+		
+		return this.ruleIndicesByNonterminalId;
+	}
+	
+	/**
+	 * Computing the closures freezes the grammar.
+	 * 
+	 * @return For each symbol id, the indices of the rules <code>r</code> such that the item
+	 * <code>[r, 0]</code> belongs to the LR(0) closure of an item whose next symbol is that symbol
+	 * (empty for terminals)
+	 */
+	public final int[][] getClosureRuleIndicesByNonterminalId() {
+		if (this.closureRuleIndicesByNonterminalId == null) {
+			final SymbolTable symbolTable = this.getSymbolTable();
+			final int[][] ruleIndices = this.getRuleIndicesByNonterminalId();
+			final int symbolCount = ruleIndices.length;
+			final int[][] result = new int[symbolCount][];
+			final List<Integer> closure = new ArrayList<>();
+			final BitSet closedNonterminals = new BitSet(symbolCount);
+			
+			for (int id = 0; id < symbolCount; ++id) {
+				closure.clear();
+				closedNonterminals.clear();
+				closedNonterminals.set(id);
+				
+				for (final int ruleIndex : ruleIndices[id]) {
+					closure.add(ruleIndex);
+				}
+				
+				for (int i = 0; i < closure.size(); ++i) {
+					final int[] development = this.getRules().get(closure.get(i)).getDevelopmentIds();
+					
+					if (0 < development.length && symbolTable.isNonterminal(development[0])
+							&& !closedNonterminals.get(development[0])) {
+						closedNonterminals.set(development[0]);
+						
+						for (final int ruleIndex : ruleIndices[development[0]]) {
+							closure.add(ruleIndex);
+						}
+					}
+				}
+				
+				result[id] = closure.stream().mapToInt(Integer::intValue).toArray();
+			}
+			
+			this.closureRuleIndicesByNonterminalId = result;
+		}
+		
+		return this.closureRuleIndicesByNonterminalId;
+	}
+	
+	/**
+	 * Maps the characters to the terminal {@link CharClass}es once the rules are final
+	 * (see {@link SymbolTable#mapCharacterClasses()}).
+	 */
+	private final void freeze() {
+		if (!this.frozen) {
+			this.frozen = true;
+			this.getSymbolTable().mapCharacterClasses();
+		}
 	}
 	
 	final void checkEditable() {
-		if (this.firsts != null) {
+		if (this.firstIds != null || this.ruleIndicesByNonterminalId != null) {
 			throw new IllegalStateException();
 		}
 	}
@@ -104,6 +267,10 @@ public final class Grammar implements Serializable {
 		
 		private final Object[] development;
 		
+		private final int nonterminalId;
+		
+		private final int[] developmentIds;
+		
 		private RuleAction action;
 		
 		public Rule(final Object nonterminal, final Object... development) {
@@ -115,9 +282,20 @@ public final class Grammar implements Serializable {
 			this.nonterminal = nonterminal;
 			this.development = development;
 			
+			final SymbolTable symbolTable = Grammar.this.getSymbolTable();
+			final int n = development.length;
+			
+			this.nonterminalId = symbolTable.intern(nonterminal);
+			this.developmentIds = new int[n];
+			
+			for (int i = 0; i < n; ++i) {
+				this.developmentIds[i] = symbolTable.intern(development[i]);
+			}
+			
 			rules.add(this);
 			
 			Grammar.this.getNonterminals().add(nonterminal);
+			symbolTable.setNonterminal(this.nonterminalId);
 		}
 		
 		public final Grammar getGrammar() {
@@ -136,6 +314,14 @@ public final class Grammar implements Serializable {
 			return this.development;
 		}
 		
+		public final int getNonterminalId() {
+			return this.nonterminalId;
+		}
+		
+		public final int[] getDevelopmentIds() {
+			return this.developmentIds;
+		}
+		
 		public final RuleAction getAction() {
 			return this.action;
 		}
@@ -145,7 +331,7 @@ public final class Grammar implements Serializable {
 			
 			return this;
 		}
-
+		
 		@Override
 		public final String toString() {
 			return this.getNonterminal() + " -> " + Arrays.toString(this.getDevelopment());
@@ -174,6 +360,14 @@ public final class Grammar implements Serializable {
 		
 		public abstract Object execute(Rule rule, Object[] data);
 		
+		/**
+		 * @return <code>false</code> if this action never keeps a reference to <code>data</code>,
+		 * which allows parsers to reuse the array
+		 */
+		public default boolean isKeepingData() {
+			return true;
+		}
+		
 	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,238 @@
+package aurochs.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import aurochs.core.Lexer.Token;
+
+/**
+ * Keeps the tokens of a text up to date through edits.
+ * <br>Token boundaries are checkpoints: the lexer starts each token in its initial state and reads at most
+ * one character after it, so an edit is relexed from the end of the last token that ends before it,
+ * and relexing stops as soon as a new token starts at the (shifted) start of an old token after the edit.
+ * <br>The spans of the tokens after the last edit are shifted lazily: an edit only updates the spans
+ * between it and the previous edit, {@link #getStart(int)} and {@link #getEnd(int)} compute spans on demand,
+ * and {@link #getTokens()} updates all of them.
+ * <br>Not thread-safe.
+ *
+ * @author codistmonk (creation 2026-10-17)
+ */
+public final class IncrementalLexer implements Serializable {
+	
+	private final Lexer lexer;
+	
+	private final StringBuilder text;
+	
+	private final List<Token> tokens;
+	
+	/**
+	 * The spans of the tokens from this index are missing {@link #shift}.
+	 */
+	private int shiftIndex;
+	
+	private long shift;
+	
+	private int removedTokenCount;
+	
+	private int relexedTokenCount;
+	
+	public IncrementalLexer(final Lexer lexer) {
+		this.lexer = lexer;
+		this.text = new StringBuilder();
+		this.tokens = new ArrayList<>();
+	}
+	
+	public final Lexer getLexer() {
+		return this.lexer;
+	}
+	
+	public final String getText() {
+		return this.text.toString();
+	}
+	
+	/**
+	 * Updates the spans of all the tokens, which is linear in the number of tokens after the last edit.
+	 */
+	public final List<Token> getTokens() {
+		this.applyShift(this.shiftIndex, this.tokens.size(), this.shift);
+		this.shiftIndex = this.tokens.size();
+		this.shift = 0L;
+		
+		return this.getTokenList();
+	}
+	
+	public final int getTokenCount() {
+		return this.tokens.size();
+	}
+	
+	/**
+	 * @return The start of the token at <code>tokenIndex</code> in the current text
+	 */
+	public final long getStart(final int tokenIndex) {
+		return this.tokens.get(tokenIndex).getStart() + this.getShift(tokenIndex);
+	}
+	
+	/**
+	 * @return The end of the token at <code>tokenIndex</code> in the current text
+	 */
+	public final long getEnd(final int tokenIndex) {
+		return this.tokens.get(tokenIndex).getEnd() + this.getShift(tokenIndex);
+	}
+	
+	/**
+	 * @return The number of old tokens replaced by the last edit
+	 */
+	public final int getRemovedTokenCount() {
+		return this.removedTokenCount;
+	}
+	
+	/**
+	 * @return The number of new tokens produced by the last edit
+	 */
+	public final int getRelexedTokenCount() {
+		return this.relexedTokenCount;
+	}
+	
+	/**
+	 * Replaces the whole text.
+	 *
+	 * @return <code>0</code>
+	 */
+	public final int setText(final CharSequence text) {
+		return this.edit(0, this.text.length(), text);
+	}
+	
+	/**
+	 * Replaces <code>[offset .. offset + removedLength[</code> with <code>insertion</code>;
+	 * the spans of the tokens after the edit are shifted (lazily).
+	 *
+	 * @return The index of the first replaced token; see {@link #getRemovedTokenCount()}
+	 * and {@link #getRelexedTokenCount()}
+	 */
+	public final int edit(final int offset, final int removedLength, final CharSequence insertion) {
+		if (offset < 0 || removedLength < 0 || this.text.length() < offset + removedLength) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		final List<Token> tokens = this.tokens;
+		final int oldTokenCount = tokens.size();
+		final int delta = insertion.length() - removedLength;
+		final int insertionEnd = offset + insertion.length();
+		final int result = this.findFirstTokenEndingAtOrAfter(offset);
+		final int checkpoint = result == 0 ? 0 : (int) this.getEnd(result - 1);
+		final List<Token> newTokens = new ArrayList<>();
+		int resynchronization = oldTokenCount;
+		
+		this.text.replace(offset, offset + removedLength, insertion.toString());
+		
+		for (final Token token : this.getLexer().translate(this.text, checkpoint)) {
+			/*
+			 * The lexer starts each token in its initial state and only reads the characters of that token
+			 * and the one following it, so a token starting after the insertion depends only on unchanged text:
+			 * if an old token started at the same place, it and all the tokens after it are lexed identically.
+			 */
+			if (insertionEnd <= token.getStart()) {
+				final int oldIndex = this.findToken(token.getStart() - delta, result);
+				
+				if (0 <= oldIndex) {
+					resynchronization = oldIndex;
+					break;
+				}
+			}
+			
+			newTokens.add(token);
+		}
+		
+		// Keeps a single lazy shift, from the resynchronization on
+		if (this.shiftIndex < result) {
+			this.applyShift(this.shiftIndex, result, this.shift);
+		} else {
+			this.applyShift(resynchronization, this.shiftIndex, -this.shift);
+		}
+		
+		this.shiftIndex = result + newTokens.size();
+		this.shift += delta;
+		
+		replace(tokens, result, resynchronization, newTokens);
+		
+		this.removedTokenCount = resynchronization - result;
+		this.relexedTokenCount = newTokens.size();
+		
+		return result;
+	}
+	
+	/**
+	 * @return The tokens, without updating their spans
+	 */
+	final List<Token> getTokenList() {
+		return Collections.unmodifiableList(this.tokens);
+	}
+	
+	private final long getShift(final int tokenIndex) {
+		return this.shiftIndex <= tokenIndex ? this.shift : 0L;
+	}
+	
+	private final void applyShift(final int start, final int end, final long shift) {
+		if (shift != 0L) {
+			for (int i = start; i < end; ++i) {
+				final Token token = this.tokens.get(i);
+				
+				token.setSpan(token.getStart() + shift, token.getEnd() + shift);
+			}
+		}
+	}
+	
+	private final int findFirstTokenEndingAtOrAfter(final int offset) {
+		int low = 0;
+		int high = this.tokens.size();
+		
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			
+			if (this.getEnd(middle) < offset) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		
+		return low;
+	}
+	
+	/**
+	 * @return <code>-1</code> if no token in <code>[from ..[</code> starts at <code>start</code>
+	 */
+	private final int findToken(final long start, final int from) {
+		int low = from;
+		int high = this.tokens.size() - 1;
+		
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			final long middleStart = this.getStart(middle);
+			
+			if (middleStart < start) {
+				low = middle + 1;
+			} else if (start < middleStart) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * {@value}.
+	 */
+	private static final long serialVersionUID = -2914334160713364880L;
+	
+	static final <T> void replace(final List<T> list, final int start, final int end,
+			final List<? extends T> replacement) {
+		list.subList(start, end).clear();
+		list.addAll(start, replacement);
+	}
+	
+}
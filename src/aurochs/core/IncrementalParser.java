@@ -0,0 +1,707 @@
+package aurochs.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import aurochs.core.Grammar.Rule;
+import aurochs.core.Grammar.RuleAction;
+import aurochs.core.Grammar.Special;
+import aurochs.core.Lexer.Token;
+
+/**
+ * Keeps the tokens and the parse tree of a text so that an edit only relexes and reparses the region around it.
+ * <br>Relexing is done by an {@link IncrementalLexer};
+ * reparsing resumes from the parse stack recorded before the edit and reuses every old subtree
+ * whose tokens and lookahead are unchanged and whose left state is still the same.
+ * <br>As soon as the parse stack before a token after the edit has the same states as in the old parse,
+ * the rest of the parse would be the same: the new stack nodes are spliced into the old tree instead,
+ * which only rebuilds their ancestors on the path to that token.
+ * <br>Rule actions must not have side effects, since the data of reused subtrees are kept.
+ * <br>Not thread-safe.
+ *
+ * @author codistmonk (creation 2026-10-17)
+ */
+public final class IncrementalParser implements Serializable {
+	
+	private final LRParser parser;
+	
+	private final IncrementalLexer lexer;
+	
+	/**
+	 * Parse stack before each token (and before the end), after the reductions done with that token as lookahead;
+	 * <code>null</code> if unknown.
+	 * <br>Only the states of these stacks are used: their nodes may have been replaced in the tree since,
+	 * so they are taken from {@link #forest} when parsing resumes.
+	 */
+	private final List<Frame> stacks;
+	
+	/**
+	 * Largest known subtree starting at each token.
+	 */
+	private final List<Node> subtrees;
+	
+	/**
+	 * The tree, or the nodes of the parse stack on the error if the last parse failed.
+	 */
+	private Node[] forest;
+	
+	private Node tree;
+	
+	private int shiftedTokenCount;
+	
+	private int reductionCount;
+	
+	private int rebuiltNodeCount;
+	
+	public IncrementalParser(final LRParser parser, final Lexer lexer) {
+		this.parser = parser;
+		this.lexer = new IncrementalLexer(lexer);
+		this.stacks = new ArrayList<>();
+		this.subtrees = new ArrayList<>();
+		this.forest = new Node[0];
+		
+		this.stacks.add(new Frame(0, null, null));
+	}
+	
+	public final LRParser getParser() {
+		return this.parser;
+	}
+	
+	public final Lexer getLexer() {
+		return this.lexer.getLexer();
+	}
+	
+	public final String getText() {
+		return this.lexer.getText();
+	}
+	
+	public final List<Token> getTokens() {
+		return this.lexer.getTokens();
+	}
+	
+	/**
+	 * @return <code>null</code> if the last parse failed
+	 */
+	public final Node getTree() {
+		return this.tree;
+	}
+	
+	public final boolean isSuccess() {
+		return this.getTree() != null;
+	}
+	
+	/**
+	 * @return The datum of the tree, or <code>null</code>
+	 */
+	public final Object getDatum() {
+		return this.isSuccess() ? LRParser.unwrap(this.getTree().getDatum()) : null;
+	}
+	
+	/**
+	 * @return The number of tokens produced by the lexer during the last update
+	 */
+	public final int getRelexedTokenCount() {
+		return this.lexer.getRelexedTokenCount();
+	}
+	
+	/**
+	 * @return The number of tokens shifted one by one (not as part of a reused subtree) during the last update
+	 */
+	public final int getShiftedTokenCount() {
+		return this.shiftedTokenCount;
+	}
+	
+	/**
+	 * @return The number of reductions done by the parser during the last update
+	 * (the nodes rebuilt when splicing aren't counted, see {@link #getRebuiltNodeCount()})
+	 */
+	public final int getReductionCount() {
+		return this.reductionCount;
+	}
+	
+	/**
+	 * @return The number of old nodes rebuilt with new children when the last update was spliced into the old tree
+	 */
+	public final int getRebuiltNodeCount() {
+		return this.rebuiltNodeCount;
+	}
+	
+	/**
+	 * Replaces the whole text.
+	 */
+	public final boolean parse(final CharSequence text) {
+		return this.edit(0, this.lexer.getText().length(), text);
+	}
+	
+	/**
+	 * Replaces <code>[offset .. offset + removedLength[</code> with <code>insertion</code>.
+	 *
+	 * @return <code>true</code> if the new text is accepted
+	 */
+	public final boolean edit(final int offset, final int removedLength, final CharSequence insertion) {
+		final int firstChangedToken = this.relex(offset, removedLength, insertion);
+		
+		this.reparse(firstChangedToken, firstChangedToken + this.getRelexedTokenCount(),
+				firstChangedToken + this.lexer.getRemovedTokenCount());
+		
+		return this.isSuccess();
+	}
+	
+	private final int relex(final int offset, final int removedLength, final CharSequence insertion) {
+		final IncrementalLexer lexer = this.lexer;
+		final int result = lexer.edit(offset, removedLength, insertion);
+		final int end = result + lexer.getRemovedTokenCount();
+		final int relexedTokenCount = lexer.getRelexedTokenCount();
+		
+		IncrementalLexer.replace(this.subtrees, result, end, Collections.nCopies(relexedTokenCount, null));
+		IncrementalLexer.replace(this.stacks, result, end, Collections.nCopies(relexedTokenCount, null));
+		
+		return result;
+	}
+	
+	/**
+	 * @param changedStart
+	 * <br>Index of the first new token
+	 * @param changedEnd
+	 * <br>Index following the last new token
+	 * @param oldChangedEnd
+	 * <br>Index following the last replaced token, before the edit
+	 */
+	private final void reparse(final int changedStart, final int changedEnd, final int oldChangedEnd) {
+		final CompiledLRTable table = this.getParser().getTable().getCompiledTable();
+		final List<Token> tokens = this.lexer.getTokenList();
+		final int tokenCount = tokens.size();
+		final int endId = table.getSymbolId(Special.END);
+		final Node oldTree = this.tree;
+		final Map<Frame, Node> resumedNodes = new IdentityHashMap<>();
+		int index = Math.max(0, changedStart - 1);
+		
+		while (0 < index && this.stacks.get(index) == null) {
+			--index;
+		}
+		
+		Frame stack = this.resume(index, resumedNodes);
+		
+		this.tree = null;
+		this.shiftedTokenCount = 0;
+		this.reductionCount = 0;
+		this.rebuiltNodeCount = 0;
+		
+		while (true) {
+			final int symbolId = index < tokenCount ? table.getSymbolId(tokens.get(index)) : endId;
+			final int action = table.getAction(stack.getState(), symbolId);
+			
+			switch (CompiledLRTable.getType(action)) {
+			case CompiledLRTable.SHIFT:
+			{
+				final Frame oldStack = this.stacks.get(index);
+				
+				if (oldTree != null && changedEnd <= index && oldStack != null && haveSameStates(stack, oldStack)) {
+					final Node tree = this.splice(table, oldTree, stack, resumedNodes, index,
+							index - changedEnd + oldChangedEnd);
+					
+					if (tree != null) {
+						this.tree = tree;
+						this.forest = new Node[] { tree };
+						
+						return;
+					}
+				}
+				
+				this.stacks.set(index, stack);
+				
+				final Node subtree = index < changedStart || changedEnd <= index ?
+						this.findReusableSubtree(table, stack.getState(), index, changedStart) : null;
+				
+				if (subtree != null) {
+					if (changedEnd <= index) {
+						// The old stacks inside the subtree can't be checked anymore
+						for (int i = index + 1; i < index + subtree.getTokenCount(); ++i) {
+							this.stacks.set(i, null);
+						}
+					}
+					
+					this.subtrees.set(index, subtree);
+					stack = new Frame(CompiledLRTable.getOperand(table.getAction(stack.getState(),
+							table.getSymbolId(subtree.getSymbol()))), subtree, stack);
+					index += subtree.getTokenCount();
+				} else {
+					this.subtrees.set(index, null);
+					stack = new Frame(CompiledLRTable.getOperand(action),
+							new Node(tokens.get(index), -1, stack.getState(), 1, null, tokens.get(index)), stack);
+					++index;
+					++this.shiftedTokenCount;
+				}
+				
+				break;
+			}
+			case CompiledLRTable.REDUCE:
+			{
+				final int ruleIndex = CompiledLRTable.getOperand(action);
+				final Node[] children = new Node[table.getRuleSize(ruleIndex)];
+				
+				for (int i = children.length - 1; 0 <= i; --i) {
+					children[i] = getNode(stack, resumedNodes);
+					stack = stack.getBelow();
+				}
+				
+				final Node node = newNode(table, ruleIndex, children);
+				final int width = node.getTokenCount();
+				final int next = table.getAction(stack.getState(), table.getRuleNonterminalId(ruleIndex));
+				
+				++this.reductionCount;
+				
+				if (0 < width) {
+					this.subtrees.set(index - width, node);
+				}
+				
+				if (next == CompiledLRTable.ACCEPT) {
+					if (index == tokenCount) {
+						this.tree = node;
+						this.forest = new Node[] { node };
+						
+						return;
+					}
+					
+					this.fail(index, changedEnd, new Node[] { node });
+					
+					return;
+				}
+				
+				stack = new Frame(CompiledLRTable.getOperand(next), node, stack);
+				
+				break;
+			}
+			default:
+				this.fail(index, changedEnd, getNodes(stack, resumedNodes));
+				
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Takes the nodes of the stack recorded before the token at <code>index</code> from {@link #forest}.
+	 *
+	 * @param resumedNodes
+	 * <br>Output: the nodes of the returned frames
+	 */
+	private final Frame resume(final int index, final Map<Frame, Node> resumedNodes) {
+		final Frame result = this.stacks.get(index);
+		
+		if (result == null) {
+			return new Frame(0, null, null);
+		}
+		
+		final List<Node> nodes = getStackNodes(this.forest, index);
+		
+		if (nodes.size() != result.getDepth()) {
+			throw new IllegalStateException();
+		}
+		
+		int start = index;
+		Frame frame = result;
+		
+		for (int i = nodes.size() - 1; 0 <= i; --i, frame = frame.getBelow()) {
+			final Node node = nodes.get(i);
+			
+			resumedNodes.put(frame, node);
+			start -= node.getTokenCount();
+			
+			if (0 < node.getTokenCount()) {
+				this.subtrees.set(start, node);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Replaces the nodes of the old parse stack before the token at <code>oldIndex</code> with the nodes of
+	 * <code>stack</code>, which has the same states, and rebuilds their ancestors.
+	 *
+	 * @return The new tree, or <code>null</code> if <code>oldTree</code> doesn't match <code>stack</code>
+	 */
+	private final Node splice(final CompiledLRTable table, final Node oldTree, final Frame stack,
+			final Map<Frame, Node> resumedNodes, final int index, final int oldIndex) {
+		final Node[] replacements = new Node[stack.getDepth()];
+		final int[] replacementStarts = new int[replacements.length + 1];
+		final List<Node> path = new ArrayList<>();
+		final List<Integer> pathChildIndices = new ArrayList<>();
+		
+		for (Frame frame = stack; 0 < frame.getDepth(); frame = frame.getBelow()) {
+			replacements[frame.getDepth() - 1] = getNode(frame, resumedNodes);
+		}
+		
+		for (int i = 0; i < replacements.length; ++i) {
+			replacementStarts[i + 1] = replacementStarts[i] + replacements[i].getTokenCount();
+		}
+		
+		{
+			Node node = oldTree;
+			int start = 0;
+			int replacedCount = 0;
+			
+			while (node.getChildren() != null) {
+				final Node[] children = node.getChildren();
+				int i = 0;
+				
+				while (start + children[i].getTokenCount() <= oldIndex) {
+					start += children[i].getTokenCount();
+					++i;
+				}
+				
+				path.add(node);
+				pathChildIndices.add(i);
+				replacedCount += i;
+				node = children[i];
+			}
+			
+			if (replacedCount != replacements.length) {
+				return null;
+			}
+			
+			path.add(node);
+		}
+		
+		Node result = path.remove(path.size() - 1);
+		int resultStart = index;
+		int replacementIndex = replacements.length;
+		
+		for (int level = path.size() - 1; 0 <= level; --level) {
+			final Node node = path.get(level);
+			final int pathChildIndex = pathChildIndices.get(level);
+			Node[] children = null;
+			
+			replacementIndex -= pathChildIndex;
+			
+			for (int i = 0; i <= pathChildIndex; ++i) {
+				final Node child = i < pathChildIndex ? replacements[replacementIndex + i] : result;
+				
+				if (child != node.getChildren()[i]) {
+					if (children == null) {
+						children = node.getChildren().clone();
+					}
+					
+					children[i] = child;
+				}
+			}
+			
+			if (0 < pathChildIndex) {
+				resultStart = replacementStarts[replacementIndex];
+			}
+			
+			if (children == null) {
+				result = node;
+			} else {
+				result = newNode(table, node.getRuleIndex(), children);
+				++this.rebuiltNodeCount;
+				
+				if (0 < result.getTokenCount()) {
+					this.subtrees.set(resultStart, result);
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Forgets the subtrees that may contain tokens changed before <code>changedEnd</code>
+	 * but that weren't replaced because parsing stopped at <code>index</code>,
+	 * and the stacks from <code>index</code> on, which can't be checked anymore.
+	 */
+	private final void fail(final int index, final int changedEnd, final Node[] forest) {
+		for (int i = index + 1; i < changedEnd; ++i) {
+			this.subtrees.set(i, null);
+		}
+		
+		for (int i = index; i < this.stacks.size(); ++i) {
+			this.stacks.set(i, null);
+		}
+		
+		this.forest = forest;
+	}
+	
+	private final Node findReusableSubtree(final CompiledLRTable table, final int state, final int index,
+			final int changedStart) {
+		Node result = this.subtrees.get(index);
+		
+		while (result != null && result.getChildren() != null) {
+			if (result.getLeftState() == state
+					&& (changedStart <= index || index + result.getTokenCount() < changedStart)
+					&& CompiledLRTable.getType(table.getAction(state, table.getSymbolId(result.getSymbol())))
+					== CompiledLRTable.SHIFT) {
+				return result;
+			}
+			
+			result = result.getFirstNonemptyChild();
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * {@value}.
+	 */
+	private static final long serialVersionUID = -6409651437396567020L;
+	
+	static final Node newNode(final CompiledLRTable table, final int ruleIndex, final Node[] children) {
+		final Rule rule = table.getRule(ruleIndex);
+		final int leftState = 0 < children.length && 0 < children[0].getTokenCount() ?
+				children[0].getLeftState() : -1;
+		int tokenCount = 0;
+		
+		for (final Node child : children) {
+			tokenCount += child.getTokenCount();
+		}
+		
+		return new Node(rule.getNonterminal(), ruleIndex, leftState, tokenCount, children, execute(rule, children));
+	}
+	
+	static final Node getNode(final Frame frame, final Map<Frame, Node> resumedNodes) {
+		final Node result = resumedNodes.get(frame);
+		
+		return result != null ? result : frame.getNode();
+	}
+	
+	/**
+	 * @return The nodes of <code>stack</code>, from the bottom
+	 */
+	static final Node[] getNodes(final Frame stack, final Map<Frame, Node> resumedNodes) {
+		final Node[] result = new Node[stack.getDepth()];
+		
+		for (Frame frame = stack; 0 < frame.getDepth(); frame = frame.getBelow()) {
+			result[frame.getDepth() - 1] = getNode(frame, resumedNodes);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @return The nodes of the parse stack before the token at <code>index</code>, from the bottom:
+	 * the nodes of <code>forest</code> that end at or before <code>index</code> and whose parent doesn't
+	 */
+	static final List<Node> getStackNodes(final Node[] forest, final int index) {
+		final List<Node> result = new ArrayList<>();
+		Node[] nodes = forest;
+		int start = 0;
+		
+		while (nodes != null) {
+			Node next = null;
+			
+			for (final Node node : nodes) {
+				if (index < start + node.getTokenCount()) {
+					next = node;
+					break;
+				}
+				
+				result.add(node);
+				start += node.getTokenCount();
+			}
+			
+			nodes = next == null ? null : next.getChildren();
+		}
+		
+		return result;
+	}
+	
+	static final boolean haveSameStates(final Frame stack1, final Frame stack2) {
+		if (stack1.getDepth() != stack2.getDepth()) {
+			return false;
+		}
+		
+		Frame frame1 = stack1;
+		Frame frame2 = stack2;
+		
+		while (frame1 != frame2) {
+			if (frame1.getState() != frame2.getState()) {
+				return false;
+			}
+			
+			frame1 = frame1.getBelow();
+			frame2 = frame2.getBelow();
+		}
+		
+		return true;
+	}
+	
+	static final Object execute(final Rule rule, final Node[] children) {
+		final RuleAction action = rule.getAction();
+		
+		if (action == null) {
+			return null;
+		}
+		
+		final Object[] data = new Object[children.length];
+		
+		for (int i = 0; i < data.length; ++i) {
+			data[i] = LRParser.unwrap(children[i].getDatum());
+		}
+		
+		return action.execute(rule, data);
+	}
+	
+	/**
+	 * Immutable parse stack element.
+	 *
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	static final class Frame implements Serializable {
+		
+		private final int state;
+		
+		private final Node node;
+		
+		private final Frame below;
+		
+		private final int depth;
+		
+		Frame(final int state, final Node node, final Frame below) {
+			this.state = state;
+			this.node = node;
+			this.below = below;
+			this.depth = below == null ? 0 : below.getDepth() + 1;
+		}
+		
+		final int getState() {
+			return this.state;
+		}
+		
+		final Node getNode() {
+			return this.node;
+		}
+		
+		final Frame getBelow() {
+			return this.below;
+		}
+		
+		/**
+		 * @return The number of frames below this one
+		 */
+		final int getDepth() {
+			return this.depth;
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = 4108003744458659633L;
+		
+	}
+	
+	/**
+	 * Immutable parse tree node; its position is implied by the token counts of the nodes before it.
+	 *
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public static final class Node implements Serializable {
+		
+		private final Object symbol;
+		
+		private final int ruleIndex;
+		
+		private final int leftState;
+		
+		private final int tokenCount;
+		
+		private final Node[] children;
+		
+		private final Object datum;
+		
+		Node(final Object symbol, final int ruleIndex, final int leftState, final int tokenCount,
+				final Node[] children, final Object datum) {
+			this.symbol = symbol;
+			this.ruleIndex = ruleIndex;
+			this.leftState = leftState;
+			this.tokenCount = tokenCount;
+			this.children = children;
+			this.datum = datum;
+		}
+		
+		/**
+		 * @return A nonterminal, or the token of a leaf
+		 */
+		public final Object getSymbol() {
+			return this.symbol;
+		}
+		
+		/**
+		 * @return <code>-1</code> for a leaf
+		 */
+		public final int getRuleIndex() {
+			return this.ruleIndex;
+		}
+		
+		/**
+		 * @return The LR state on which the first token of this node was shifted,
+		 * or <code>-1</code> if this node starts with an empty node
+		 */
+		public final int getLeftState() {
+			return this.leftState;
+		}
+		
+		public final int getTokenCount() {
+			return this.tokenCount;
+		}
+		
+		public final int getChildCount() {
+			return this.children == null ? 0 : this.children.length;
+		}
+		
+		public final Node getChild(final int index) {
+			return this.children[index];
+		}
+		
+		/**
+		 * @return The result of the rule action, or the token of a leaf
+		 */
+		public final Object getDatum() {
+			return this.datum;
+		}
+		
+		final Node[] getChildren() {
+			return this.children;
+		}
+		
+		final Node getFirstNonemptyChild() {
+			for (final Node child : this.children) {
+				if (0 < child.getTokenCount()) {
+					return child;
+				}
+			}
+			
+			return null;
+		}
+		
+		@Override
+		public final String toString() {
+			if (this.children == null) {
+				return this.getSymbol().toString();
+			}
+			
+			final StringBuilder resultBuilder = new StringBuilder().append(this.getSymbol()).append('(');
+			
+			for (int i = 0; i < this.children.length; ++i) {
+				if (0 < i) {
+					resultBuilder.append(' ');
+				}
+				
+				resultBuilder.append(this.children[i]);
+			}
+			
+			return resultBuilder.append(')').toString();
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = 1733806452711017962L;
+		
+	}
+	
+}
@@ -1,16 +1,27 @@
 package aurochs.core;
 
 import static multij.tools.Tools.cast;
-import static multij.tools.Tools.set;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 import aurochs.core.Grammar.Rule;
 import multij.tools.Tools;
@@ -25,40 +36,84 @@ public final class LALR1ClosureTable implements ClosureTable {
 	private final List<State> states;
 	
 	public LALR1ClosureTable(final Grammar grammar) {
+		this(grammar, null);
+	}
+	
+	/**
+	 * The states are built level by level (breadth-first); closures and next kernels of a level are computed
+	 * in <code>pool</code>, and new states are numbered in the same order as with a single thread.
+	 * 
+	 * @param pool
+	 * <br>Maybe null
+	 */
+	public LALR1ClosureTable(final Grammar grammar, final ForkJoinPool pool) {
 		this.grammar = grammar;
 		this.states = new ArrayList<>();
 		
-		this.states.add(new State(grammar, set(new Item(null,
-				grammar.getRules().get(0), 0, set(Grammar.Special.END)))));
+		final SymbolTable symbolTable = grammar.getSymbolTable();
+		final Map<KernelCore, Integer> stateIndices = new ConcurrentHashMap<>();
+		final BitSet initialLookAheads = new BitSet();
+		
+		// Lazy grammar data must be ready before the states are built concurrently
+		grammar.getFirstIds();
+		grammar.getClosureRuleIndicesByNonterminalId();
+		
+		initialLookAheads.set(symbolTable.getId(Grammar.Special.END));
 		
-		for (int i = 0; i < this.states.size(); ++i) {
-			final State state = this.states.get(i);
-			final Map<Object, Collection<LALR1ClosureTable.Item>> nextKernels = state.computeNextKernels();
+		final List<LALR1ClosureTable.Item> initialKernel = Arrays.asList(new Item(null,
+				grammar.getRules().get(0), 0, initialLookAheads));
+		
+		stateIndices.put(new KernelCore(initialKernel), 0);
+		this.states.add(new State(grammar, initialKernel));
+		
+		for (int levelStart = 0; levelStart < this.states.size();) {
+			final int levelEnd = this.states.size();
+			final List<List<Successor>> successors = new ArrayList<>(Collections.nCopies(levelEnd - levelStart, null));
+			final int offset = levelStart;
 			
-			for (final Map.Entry<Object, Collection<LALR1ClosureTable.Item>> entry : nextKernels.entrySet()) {
-				final Collection<LALR1ClosureTable.Item> entryKernel = entry.getValue();
-				boolean addNewState = true;
+			forEach(pool, levelStart, levelEnd, i -> {
+				final List<Successor> stateSuccessors = new ArrayList<>();
 				
-				for (int j = 0; j < this.states.size(); ++j) {
-					final boolean existingKernelFound = matchAndConnectKernels(entryKernel,
-							this.states.get(j).getKernel());
+				for (final Map.Entry<Integer, List<LALR1ClosureTable.Item>> entry
+						: this.states.get(i).computeNextKernels().entrySet()) {
+					final KernelCore core = new KernelCore(entry.getValue());
 					
-					if (existingKernelFound) {
-						addNewState = false;
-						
-						if (state.getTransitions().put(entry.getKey(), j) != null) {
-							throw new IllegalStateException();
-						}
-						
-						break;
-					}
+					stateSuccessors.add(new Successor(entry.getKey(), entry.getValue(), core, stateIndices.get(core)));
 				}
 				
-				if (addNewState) {
-					state.getTransitions().put(entry.getKey(), this.states.size());
-					this.states.add(new State(grammar, entryKernel));
+				successors.set(i - offset, stateSuccessors);
+			});
+			
+			final List<List<LALR1ClosureTable.Item>> newKernels = new ArrayList<>();
+			
+			for (int i = levelStart; i < levelEnd; ++i) {
+				final State state = this.states.get(i);
+				
+				for (final Successor successor : successors.get(i - levelStart)) {
+					final Object symbol = symbolTable.getSymbol(successor.getSymbolId());
+					Integer stateIndex = successor.getStateIndex();
+					
+					if (stateIndex == null) {
+						stateIndex = stateIndices.putIfAbsent(successor.getCore(), levelEnd + newKernels.size());
+					}
+					
+					if (stateIndex != null) {
+						connectKernels(successor.getKernel(), stateIndex < levelEnd
+								? this.states.get(stateIndex).getKernel() : newKernels.get(stateIndex - levelEnd));
+						state.getTransitions().put(symbol, stateIndex);
+					} else {
+						state.getTransitions().put(symbol, levelEnd + newKernels.size());
+						newKernels.add(successor.getKernel());
+					}
 				}
 			}
+			
+			final State[] newStates = new State[newKernels.size()];
+			
+			forEach(pool, 0, newStates.length, i -> newStates[i] = new State(grammar, newKernels.get(i)));
+			
+			this.states.addAll(Arrays.asList(newStates));
+			levelStart = levelEnd;
 		}
 		
 		this.propagateLookAheads();
@@ -79,15 +134,22 @@ public final class LALR1ClosureTable implements ClosureTable {
 	}
 	
 	private final void propagateLookAheads() {
-		boolean notDone;
+		final Deque<LALR1ClosureTable.Item> todo = new ArrayDeque<>();
 		
-		do {
-			notDone = false;
+		for (final State state : this.states) {
+			todo.addAll(state.getKernel());
+			todo.addAll(state.getClosure());
+		}
+		
+		while (!todo.isEmpty()) {
+			final LALR1ClosureTable.Item item = todo.poll();
 			
-			for (final State state : this.states) {
-				notDone |= state.propagateLookAheads();
+			for (final LALR1ClosureTable.Item target : item.getLookAheadPropagationTargets()) {
+				if (target.addLookAheads(item.getLookAheads())) {
+					todo.add(target);
+				}
 			}
-		} while (notDone);
+		}
 	}
 	
 	/**
@@ -95,105 +157,125 @@ public final class LALR1ClosureTable implements ClosureTable {
 	 */
 	private static final long serialVersionUID = -632237351102999005L;
 	
-	public static final boolean matchAndConnectKernels(final Collection<LALR1ClosureTable.Item> entryKernel,
-			final Collection<LALR1ClosureTable.Item> stateJKernel) {
-		boolean result = false;
-		
-		if (entryKernel.containsAll(stateJKernel)) {
-			int matchCount = 0;
-			
-			for (final LALR1ClosureTable.Item entryItem : entryKernel) {
-				for (final LALR1ClosureTable.Item stateJItem : stateJKernel) {
-					if (entryItem.equals(stateJItem)) {
-						entryItem.getLookAheadPropagationTargets().add(stateJItem);
-						++matchCount;
-					}
-				}
-			}
+	/**
+	 * Makes each item of <code>entryKernel</code> propagate its lookaheads (current and future) to the item
+	 * with the same rule and cursor in <code>existingKernel</code>; both kernels must be sorted with {@link #ITEM_ORDER}.
+	 */
+	public static final void connectKernels(final List<LALR1ClosureTable.Item> entryKernel,
+			final List<LALR1ClosureTable.Item> existingKernel) {
+		final int n = entryKernel.size();
+		
+		for (int i = 0; i < n; ++i) {
+			final LALR1ClosureTable.Item entryItem = entryKernel.get(i);
+			final LALR1ClosureTable.Item existingItem = existingKernel.get(i);
 			
-			result = matchCount == entryKernel.size();
+			existingItem.addLookAheads(entryItem.getLookAheads());
+			entryItem.getLookAheadPropagationTargets().add(existingItem);
+		}
+	}
+	
+	/**
+	 * Calls <code>action</code> on each integer in <code>[start .. end[</code>, in <code>pool</code> if it isn't null.
+	 */
+	public static final void forEach(final ForkJoinPool pool, final int start, final int end, final IntConsumer action) {
+		if (pool == null) {
+			for (int i = start; i < end; ++i) {
+				action.accept(i);
+			}
+		} else if (start < end) {
+			pool.invoke(new RangeAction(start, end, action));
 		}
-		
-		return result;
 	}
 	
+	public static final Comparator<LALR1ClosureTable.Item> ITEM_ORDER = (item1, item2) -> {
+		final int result = Integer.compare(item1.getRule().getIndex(), item2.getRule().getIndex());
+		
+		return result != 0 ? result : Integer.compare(item1.getCursorIndex(), item2.getCursorIndex());
+	};
+	
 	/**
 	 * @author codistmonk (creation 2014-08-24)
 	 */
 	public final class State implements ClosureTable.State {
 		
-		private final Collection<LALR1ClosureTable.Item> kernel;
+		private final List<LALR1ClosureTable.Item> kernel;
 		
 		private final Set<LALR1ClosureTable.Item> closure;
 		
 		private final Map<Object, Integer> transitions;
 		
-		public State(final Grammar grammar, final Collection<LALR1ClosureTable.Item> kernel) {
+		/**
+		 * @param kernel
+		 * <br>Sorted with {@link LALR1ClosureTable#ITEM_ORDER}
+		 */
+		public State(final Grammar grammar, final List<LALR1ClosureTable.Item> kernel) {
 			this.kernel = kernel;
 			this.closure = new HashSet<>();
 			this.transitions = new HashMap<>();
 			
-			final List<LALR1ClosureTable.Item> todo = new ArrayList<>(kernel);
+			final List<Rule> rules = grammar.getRules();
+			final int[][] ruleIndices = grammar.getRuleIndicesByNonterminalId();
+			final int[][] closures = grammar.getClosureRuleIndicesByNonterminalId();
+			final Map<Integer, LALR1ClosureTable.Item> closureItems = new HashMap<>();
 			
-			while (!todo.isEmpty()) {
-				final LALR1ClosureTable.Item item = todo.remove(0);
-				boolean addItemToClosure = true;
-				
-				for (final LALR1ClosureTable.Item existingItem : this.closure) {
-					if (item.equals(existingItem)) {
-						existingItem.getLookAheads().addAll(item.getLookAheads());
-						addItemToClosure = false;
-						break;
+			for (final LALR1ClosureTable.Item item : kernel) {
+				if (item.getCursorIndex() == 0) {
+					closureItems.put(item.getRule().getIndex(), item);
+				}
+			}
+			
+			for (final LALR1ClosureTable.Item item : kernel) {
+				if (item.hasNextSymbol()) {
+					for (final int ruleIndex : closures[item.getNextSymbolId()]) {
+						closureItems.computeIfAbsent(ruleIndex, k -> new Item(null, rules.get(k), 0, new BitSet()));
 					}
 				}
-				
-				if (addItemToClosure) {
-					this.closure.add(item);
+			}
+			
+			this.closure.addAll(kernel);
+			this.closure.addAll(closureItems.values());
+			
+			for (final LALR1ClosureTable.Item item : this.closure) {
+				if (item.hasNextSymbol() && 0 < ruleIndices[item.getNextSymbolId()].length) {
+					final BitSet nextFirsts = new BitSet();
+					final boolean propagate = item.collectNextFirsts(nextFirsts);
 					
-					if (item.hasNextSymbol()) {
-						final Object nextSymbol = item.getNextSymbol();
-						final Set<Object> nextLookAheads = item.getNextLookAheads();
+					for (final int ruleIndex : ruleIndices[item.getNextSymbolId()]) {
+						final LALR1ClosureTable.Item child = closureItems.get(ruleIndex);
+						
+						child.getLookAheads().or(nextFirsts);
 						
-						for (final Rule rule : grammar.getRules()) {
-							if (nextSymbol.equals(rule.getNonterminal())) {
-								todo.add(new Item(item, rule, 0, new HashSet<>(nextLookAheads)));
-							}
+						if (propagate) {
+							item.getLookAheadPropagationTargets().add(child);
 						}
 					}
 				}
 			}
 		}
 		
-		public final Map<Object, Collection<LALR1ClosureTable.Item>> computeNextKernels() {
-			final Map<Object, Collection<LALR1ClosureTable.Item>> result = new HashMap<>();
+		/**
+		 * @return Kernels sorted with {@link LALR1ClosureTable#ITEM_ORDER}, keyed by symbol id in ascending order
+		 */
+		public final Map<Integer, List<LALR1ClosureTable.Item>> computeNextKernels() {
+			final Map<Integer, List<LALR1ClosureTable.Item>> result = new TreeMap<>();
 			
 			for (final LALR1ClosureTable.Item item : this.getClosure()) {
 				if (item.hasNextSymbol()) {
 					final LALR1ClosureTable.Item newItem = new Item(item, item.getRule(), item.getCursorIndex() + 1,
-							new HashSet<>(item.getLookAheads()));
+							(BitSet) item.getLookAheads().clone());
 					result.compute(
-							item.getNextSymbol(), (k, v) -> v == null ? new HashSet<>() : v).add(newItem);
+							item.getNextSymbolId(), (k, v) -> v == null ? new ArrayList<>() : v).add(newItem);
 				}
 			}
 			
-			return result;
-		}
-		
-		public final boolean propagateLookAheads() {
-			boolean result = false;
-			
-			for (final LALR1ClosureTable.Item item : this.getKernel()) {
-				result |= item.propagateLookAheads();
-			}
-			
-			for (final LALR1ClosureTable.Item item : this.getClosure()) {
-				result |= item.propagateLookAheads();
+			for (final List<LALR1ClosureTable.Item> kernel : result.values()) {
+				kernel.sort(ITEM_ORDER);
 			}
 			
 			return result;
 		}
 		
-		public final Collection<LALR1ClosureTable.Item> getKernel() {
+		public final List<LALR1ClosureTable.Item> getKernel() {
 			return this.kernel;
 		}
 		
@@ -208,16 +290,17 @@ public final class LALR1ClosureTable implements ClosureTable {
 		
 		@Override
 		public final Map<Object, Collection<Integer>> getReductions() {
+			final SymbolTable symbolTable = LALR1ClosureTable.this.getGrammar().getSymbolTable();
 			final Map<Object, Collection<Integer>> result = new HashMap<>();
 			
 			for (final LALR1ClosureTable.Item item : this.getClosure()) {
 				if (!item.hasNextSymbol()) {
 					final Integer ruleIndex = item.getRule().getIndex();
+					final BitSet lookAheads = item.getLookAheads();
 					
-					for (final Object lookAhead : item.getLookAheads()) {
-						result.compute(lookAhead,
-								(k, v) -> v == null ? new HashSet<>() : v).add(ruleIndex);
-						
+					for (int id = lookAheads.nextSetBit(0); 0 <= id; id = lookAheads.nextSetBit(id + 1)) {
+						result.compute(symbolTable.getSymbol(id),
+								(k, v) -> v == null ? new TreeSet<>() : v).add(ruleIndex);
 					}
 				}
 			}
@@ -232,6 +315,161 @@ public final class LALR1ClosureTable implements ClosureTable {
 		
 	}
 	
+	/**
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	static final class Successor implements Serializable {
+		
+		private final int symbolId;
+		
+		private final List<LALR1ClosureTable.Item> kernel;
+		
+		private final KernelCore core;
+		
+		private final Integer stateIndex;
+		
+		/**
+		 * @param stateIndex
+		 * <br>Maybe null
+		 */
+		Successor(final int symbolId, final List<LALR1ClosureTable.Item> kernel, final KernelCore core,
+				final Integer stateIndex) {
+			this.symbolId = symbolId;
+			this.kernel = kernel;
+			this.core = core;
+			this.stateIndex = stateIndex;
+		}
+		
+		public final int getSymbolId() {
+			return this.symbolId;
+		}
+		
+		public final List<LALR1ClosureTable.Item> getKernel() {
+			return this.kernel;
+		}
+		
+		public final KernelCore getCore() {
+			return this.core;
+		}
+		
+		/**
+		 * @return The index of the existing state with the same core when this successor was computed, or null
+		 */
+		public final Integer getStateIndex() {
+			return this.stateIndex;
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = 3317409658215484326L;
+		
+	}
+	
+	/**
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	static final class RangeAction extends RecursiveAction {
+		
+		private final int start;
+		
+		private final int end;
+		
+		private final IntConsumer action;
+		
+		RangeAction(final int start, final int end, final IntConsumer action) {
+			this.start = start;
+			this.end = end;
+			this.action = action;
+		}
+		
+		@Override
+		protected final void compute() {
+			if (this.end - this.start <= 1) {
+				if (this.start < this.end) {
+					this.action.accept(this.start);
+				}
+			} else {
+				final int middle = (this.start + this.end) >>> 1;
+				
+				invokeAll(new RangeAction(this.start, middle, this.action),
+						new RangeAction(middle, this.end, this.action));
+			}
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = -1850736052839217304L;
+		
+	}
+	
+	/**
+	 * Rule and cursor indices of a sorted kernel, with a precomputed hash.
+	 * 
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public static final class KernelCore implements Serializable {
+		
+		private final int[] ruleAndCursorIndices;
+		
+		private final int hashCode;
+		
+		/**
+		 * @param kernel
+		 * <br>Sorted with {@link LALR1ClosureTable#ITEM_ORDER}
+		 */
+		public KernelCore(final List<LALR1ClosureTable.Item> kernel) {
+			this(ruleAndCursorIndices(kernel));
+		}
+		
+		/**
+		 * @param ruleAndCursorIndices
+		 * <br>Pairs sorted by rule index then cursor index
+		 */
+		public KernelCore(final int[] ruleAndCursorIndices) {
+			this.ruleAndCursorIndices = ruleAndCursorIndices;
+			this.hashCode = Arrays.hashCode(ruleAndCursorIndices);
+		}
+		
+		public final int[] getRuleAndCursorIndices() {
+			return this.ruleAndCursorIndices;
+		}
+		
+		@Override
+		public final int hashCode() {
+			return this.hashCode;
+		}
+		
+		@Override
+		public final boolean equals(final Object object) {
+			final KernelCore that = cast(this.getClass(), object);
+			
+			return that != null && this.hashCode == that.hashCode
+					&& Arrays.equals(this.ruleAndCursorIndices, that.ruleAndCursorIndices);
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = 1529734418938406475L;
+		
+		public static final int[] ruleAndCursorIndices(final List<LALR1ClosureTable.Item> kernel) {
+			final int n = kernel.size();
+			final int[] result = new int[2 * n];
+			
+			for (int i = 0; i < n; ++i) {
+				final LALR1ClosureTable.Item item = kernel.get(i);
+				
+				result[2 * i + 0] = item.getRule().getIndex();
+				result[2 * i + 1] = item.getCursorIndex();
+			}
+			
+			return result;
+		}
+		
+	}
+	
 	/**
 	 * @author codistmonk (creation 2014-08-24)
 	 */
@@ -241,11 +479,15 @@ public final class LALR1ClosureTable implements ClosureTable {
 		
 		private final int cursorIndex;
 		
-		private final Set<Object> lookAheads;
+		private final BitSet lookAheads;
 		
 		private final Collection<LALR1ClosureTable.Item> lookAheadPropagationTargets;
 		
-		public Item(final Item parent, final Rule rule, final int cursorIndex, final Set<Object> lookAheads) {
+		/**
+		 * @param lookAheads
+		 * <br>Symbol ids
+		 */
+		public Item(final Item parent, final Rule rule, final int cursorIndex, final BitSet lookAheads) {
 			this.rule = rule;
 			this.cursorIndex = cursorIndex;
 			this.lookAheads = lookAheads;
@@ -264,7 +506,10 @@ public final class LALR1ClosureTable implements ClosureTable {
 			return this.cursorIndex;
 		}
 		
-		public final Set<Object> getLookAheads() {
+		/**
+		 * @return Symbol ids
+		 */
+		public final BitSet getLookAheads() {
 			return this.lookAheads;
 		}
 		
@@ -272,18 +517,15 @@ public final class LALR1ClosureTable implements ClosureTable {
 			return this.lookAheadPropagationTargets;
 		}
 		
-		public final boolean propagateLookAheads() {
-			boolean result = false;
+		/**
+		 * @return <code>true</code> if the lookaheads of this item changed
+		 */
+		public final boolean addLookAheads(final BitSet lookAheads) {
+			final int oldCardinality = this.lookAheads.cardinality();
 			
-			for (final LALR1ClosureTable.Item target : this.getLookAheadPropagationTargets()) {
-				if (target.getLookAheads().addAll(this.getLookAheads())) {
-					result = true;
-					
-					target.propagateLookAheads();
-				}
-			}
+			this.lookAheads.or(lookAheads);
 			
-			return result;
+			return oldCardinality != this.lookAheads.cardinality();
 		}
 		
 		public final boolean hasNextSymbol() {
@@ -294,37 +536,53 @@ public final class LALR1ClosureTable implements ClosureTable {
 			return this.getRule().getDevelopment()[this.getCursorIndex()];
 		}
 		
-		public final Set<Object> getNextLookAheads() {
+		public final int getNextSymbolId() {
+			return this.getRule().getDevelopmentIds()[this.getCursorIndex()];
+		}
+		
+		/**
+		 * @return Symbol ids
+		 */
+		public final BitSet getNextLookAheads() {
+			final BitSet result = new BitSet(this.getRule().getGrammar().getSymbolTable().getSymbolCount());
+			
+			if (this.collectNextFirsts(result)) {
+				result.or(this.getLookAheads());
+			}
+			
+			return result;
+		}
+		
+		/**
+		 * Adds to <code>result</code> the ids of the terminals that can start what follows the next symbol.
+		 * 
+		 * @return <code>true</code> if what follows the next symbol can be empty
+		 */
+		public final boolean collectNextFirsts(final BitSet result) {
 			final Grammar grammar = this.getRule().getGrammar();
-			final Set<Object> nonterminals = grammar.getNonterminals();
-			final Set<Object> collapsables = grammar.getCollapsables();
-			final Map<Object, Collection<Object>> firsts = grammar.getFirsts();
-			final Set<Object> result = new HashSet<>();
-			final Object[] development = this.getRule().getDevelopment();
+			final SymbolTable symbolTable = grammar.getSymbolTable();
+			final BitSet collapsables = grammar.getCollapsableIds();
+			final BitSet[] firsts = grammar.getFirstIds();
+			final int[] development = this.getRule().getDevelopmentIds();
 			final int n = development.length;
 			int i;
 			
 			for (i = this.getCursorIndex() + 1; i < n; ++i) {
-				final Object symbol = development[i];
-				final boolean symbolIsTerminal = !nonterminals.contains(symbol);
+				final int symbol = development[i];
 				
-				if (symbolIsTerminal) {
-					result.add(symbol);
+				if (!symbolTable.isNonterminal(symbol)) {
+					result.set(symbol);
 					break;
 				}
 				
-				result.addAll(firsts.get(symbol));
+				result.or(firsts[symbol]);
 				
-				if (!collapsables.contains(symbol)) {
+				if (!collapsables.get(symbol)) {
 					break;
 				}
 			}
 			
-			if (i == n) {
-				result.addAll(this.getLookAheads());
-			}
-			
-			return result;
+			return i == n;
 		}
 		
 		@Override
@@ -357,7 +615,10 @@ public final class LALR1ClosureTable implements ClosureTable {
 				resultBuilder.append('.');
 			}
 			
-			resultBuilder.append(", ").append(Tools.join("/", this.getLookAheads().toArray())).append(']');
+			final SymbolTable symbolTable = this.getRule().getGrammar().getSymbolTable();
+			
+			resultBuilder.append(", ").append(Tools.join("/", this.getLookAheads().stream()
+					.mapToObj(symbolTable::getSymbol).toArray())).append(']');
 			
 			return resultBuilder.toString();
 		}
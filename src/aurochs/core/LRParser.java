@@ -12,7 +12,6 @@ import aurochs.core.Grammar.Rule;
 import aurochs.core.Grammar.RuleAction;
 import aurochs.core.Grammar.Special;
 import aurochs.core.LRTable.Action;
-import aurochs.core.LRTable.Shift;
 import multij.tools.Tools;
 
 /**
@@ -42,6 +41,9 @@ public final class LRParser implements Serializable {
 	}
 	
 	/**
+	 * Build-time tool: in {@link Mode#ACCEPT_CURRENT} mode, it modifies the table of its parser,
+	 * which must not be in use by other threads.
+	 * 
 	 * @author codistmonk (creation 2014-08-24)
 	 */
 	public static final class ConflictResolver implements Serializable {
@@ -65,6 +67,13 @@ public final class LRParser implements Serializable {
 			this.mode = Mode.TRY_NEXT;
 		}
 		
+		/**
+		 * @return The action used instead of those of the rules while resolving, or <code>null</code>
+		 */
+		public final RuleAction getObjectGenerator() {
+			return this.objectGenerator;
+		}
+		
 		public final List<Integer> getActionChoices() {
 			return this.actionChoices;
 		}
@@ -80,55 +89,38 @@ public final class LRParser implements Serializable {
 		}
 		
 		public final ConflictResolver resolve(final List<?> tokens, final Object[] expected) {
-			final Grammar grammar = this.parser.getGrammar();
-			final List<Rule> rules = grammar.getRules();
-			final RuleAction[] savedRuleActions = rules.stream()
-					.map(rule -> rule.getAction()).toArray(RuleAction[]::new);
-			
-			try {
-				if (this.objectGenerator != null) {
-					ConflictResolver.setup(grammar, this.objectGenerator);
-				}
-				
-				this.setMode(Mode.TRY_NEXT);
-				
-				final List<Object[]> actuals = new ArrayList<>();
-				
+			this.setMode(Mode.TRY_NEXT);
+			
+			final List<Object[]> actuals = new ArrayList<>();
+			
+			actuals.add((Object[]) this.parser.parse(tokens(tokens), this));
+			
+			while (!Arrays.deepEquals(expected, last(actuals))) {
 				actuals.add((Object[]) this.parser.parse(tokens(tokens), this));
 				
-				while (!Arrays.deepEquals(expected, last(actuals))) {
-					actuals.add((Object[]) this.parser.parse(tokens(tokens), this));
-					
-					if (isZeroes(this.getActionChoices())) {
-						break;
-					}
+				if (isZeroes(this.getActionChoices())) {
+					break;
 				}
+			}
+			
+			this.setMode(Mode.ACCEPT_CURRENT);
+			
+			final Object[] actual = (Object[]) this.parser.parse(tokens(tokens), this);
+			
+			this.getActionChoices().clear();
+			this.setMode(Mode.TRY_NEXT);
+			
+			if (!Arrays.deepEquals(expected, actual)) {
+				Tools.debugError("Expected:", Arrays.deepToString(expected));
 				
-				this.setMode(Mode.ACCEPT_CURRENT);
-				
-				final Object[] actual = (Object[]) this.parser.parse(tokens(tokens), this);
-				
-				this.getActionChoices().clear();
-				this.setMode(Mode.TRY_NEXT);
-				
-				if (!Arrays.deepEquals(expected, actual)) {
-					Tools.debugError("Expected:", Arrays.deepToString(expected));
-					
-					for (int i = 0; i < actuals.size(); ++i) {
-						Tools.debugError("Actual[" + i + "]:", Arrays.deepToString(actuals.get(i)));
-					}
-					
-					throw new IllegalStateException();
+				for (int i = 0; i < actuals.size(); ++i) {
+					Tools.debugError("Actual[" + i + "]:", Arrays.deepToString(actuals.get(i)));
 				}
 				
-				return this;
-			} finally {
-				final int n = savedRuleActions.length;
-				
-				for (int i = 0; i < n; ++i) {
-					rules.get(i).setAction(savedRuleActions[i]);
-				}
+				throw new IllegalStateException();
 			}
+			
+			return this;
 		}
 		
 		/**
@@ -210,6 +202,7 @@ public final class LRParser implements Serializable {
 					
 					actions.clear();
 					actions.add(action);
+					this.getTable().invalidateCompiledTable();
 					
 					break;
 				case TRY_NEXT:
@@ -235,7 +228,11 @@ public final class LRParser implements Serializable {
 				++choiceIndex;
 			}
 			
-			action.perform(stack, tokens);
+			if (action instanceof LRTable.Reduce && resolver.getObjectGenerator() != null) {
+				((LRTable.Reduce) action).perform(stack, tokens, resolver.getObjectGenerator());
+			} else {
+				action.perform(stack, tokens);
+			}
 		}
 		
 		if (tokens.get() != Special.END) {
@@ -251,37 +248,24 @@ public final class LRParser implements Serializable {
 	
 	public final boolean parse(final TokenSource<?> tokens, final Object[] datum) {
 		final Parsing parsing = this.new Parsing(tokens);
-		ParsingStatus status;
-		
-		do {
-			status = parsing.step();
-		} while (!status.isDone());
+		final boolean result = parsing.parse();
 		
 		if (datum != null) {
 			datum[0] = parsing.getDatum();
 		}
 		
-		return ParsingStatus.DONE == status;
+		return result;
 	}
 	
 	public final boolean parsePrefix(final TokenSource<?> tokens) {
-		final Parsing parsing = this.new Parsing(tokens);
-		ParsingStatus status;
-		
-		do {
-			status = parsing.step();
-			
-			if (ParsingStatus.ERROR == status) {
-				status = parsing.setErrorMode().step();
-			}
-		} while (!status.isDone());
-		
-		return ParsingStatus.DONE == status;
+		return this.new Parsing(tokens).parsePrefix();
 	}
 	
 	public final List<Action> getActions(final StackItem stackItem) {
-		final List<Action> actions = this.getTable().getActions()
-				.get(stackItem.getStateIndex()).get(stackItem.getToken());
+		final SymbolTable symbolTable = this.getGrammar().getSymbolTable();
+		final int symbolId = symbolTable.getId(stackItem.getToken());
+		final List<Action> actions = this.getTable().getActions().get(stackItem.getStateIndex())
+				.get(symbolId < 0 ? stackItem.getToken() : symbolTable.getSymbol(symbolId));
 		
 		if (actions == null || actions.isEmpty()) {
 			return null;
@@ -312,58 +296,255 @@ public final class LRParser implements Serializable {
 		
 		private TokenSource<?> tokens;
 		
-		private final Object initialNonterminal;
+		private final CompiledLRTable table;
 		
-		private final List<StackItem> stack;
+		private int[] states;
+		
+		private Object[] data;
+		
+		private int size;
+		
+		private int lookAheadId;
+		
+		private boolean accepted;
 		
 		private Object datum;
 		
+		private boolean errorMode;
+		
+		private ReductionListener reductionListener;
+		
+		private Object[][] reusableData;
+		
+		/**
+		 * @param tokens
+		 * <br>Can be <code>null</code> if the tokens are pushed with {@link #feed(Object)}
+		 */
 		public Parsing(final TokenSource<?> tokens) {
+			this.table = LRParser.this.getTable().getCompiledTable();
+			this.states = new int[INITIAL_STACK_CAPACITY];
+			this.data = new Object[INITIAL_STACK_CAPACITY];
+			this.reusableData = new Object[0][];
+			
+			this.reset(tokens);
+		}
+		
+		/**
+		 * Restarts parsing from the initial state with <code>tokens</code>, keeping the allocated buffers.
+		 */
+		public final Parsing reset(final TokenSource<?> tokens) {
+			Arrays.fill(this.data, 0, this.size, null);
+			
 			this.tokens = tokens;
-			this.initialNonterminal = LRParser.this.getGrammar().getRules().get(0).getNonterminal();
-			this.stack = new ArrayList<>();
+			this.size = 1;
+			this.accepted = false;
+			this.datum = null;
+			this.errorMode = false;
+			this.lookAheadId = tokens == null ? -1 : this.readLookAheadId();
 			
-			this.stack.add(new StackItem().setStateIndex(0).setToken(tokens.read().get()));
+			return this;
 		}
 		
 		public final Object getDatum() {
-			return this.datum;
+			return unwrap(this.datum);
 		}
 		
-		public final ParsingStatus step() {
-			if (!this.stack.isEmpty() && last(this.stack).getToken() != this.initialNonterminal) {
-				final Action action = LRParser.this.getAction(last(this.stack));
+		/**
+		 * @return The number of states on the stack, including the initial one
+		 */
+		final int getStackSize() {
+			return this.size;
+		}
+		
+		public final ReductionListener getReductionListener() {
+			return this.reductionListener;
+		}
+		
+		/**
+		 * @param reductionListener
+		 * <br>Can be <code>null</code>
+		 */
+		public final Parsing setReductionListener(final ReductionListener reductionListener) {
+			this.reductionListener = reductionListener;
+			
+			return this;
+		}
+		
+		/**
+		 * Parses all the remaining tokens.
+		 */
+		public final boolean parse() {
+			ParsingStatus status;
+			
+			do {
+				status = this.step();
+			} while (!status.isDone());
+			
+			return ParsingStatus.DONE == status;
+		}
+		
+		/**
+		 * Parses the longest prefix that reduces to the initial nonterminal;
+		 * the first token that doesn't belong to it is given back to the token source.
+		 */
+		public final boolean parsePrefix() {
+			ParsingStatus status;
+			
+			do {
+				status = this.step();
 				
-				if (action == null) {
-					return ParsingStatus.ERROR;
+				if (ParsingStatus.ERROR == status && !this.errorMode) {
+					status = this.setErrorMode().step();
 				}
+			} while (!status.isDone());
+			
+			return ParsingStatus.DONE == status;
+		}
+		
+		public final ParsingStatus step() {
+			if (this.accepted) {
+				return this.errorMode || this.tokens.get() == Special.END ? ParsingStatus.DONE : ParsingStatus.ERROR;
+			}
+			
+			final int action = this.table.getAction(this.states[this.size - 1], this.lookAheadId);
+			
+			switch (CompiledLRTable.getType(action)) {
+			case CompiledLRTable.SHIFT:
+				this.push(CompiledLRTable.getOperand(action), this.tokens.get());
+				this.lookAheadId = this.readLookAheadId();
 				
-				action.perform(this.stack, this.tokens);
+				return ParsingStatus.SHIFTED;
+			case CompiledLRTable.REDUCE:
+				this.reduce(CompiledLRTable.getOperand(action));
 				
-				if (!this.stack.isEmpty()) {
-					this.datum = last(this.stack).getDatum();
+				return ParsingStatus.REDUCED;
+			default:
+				return ParsingStatus.ERROR;
+			}
+		}
+		
+		/**
+		 * Push form of {@link #parse()}: reduces as far as <code>token</code> (as lookahead) allows, then shifts it;
+		 * the token source isn't used.
+		 * 
+		 * @return {@link ParsingStatus#SHIFTED} if <code>token</code> was shifted,
+		 * {@link ParsingStatus#DONE} if <code>token</code> is {@link Special#END} and the input is accepted,
+		 * or {@link ParsingStatus#ERROR}
+		 */
+		public final ParsingStatus feed(final Object token) {
+			final CompiledLRTable table = this.table;
+			final int symbolId = table.getSymbolId(token);
+			
+			while (!this.accepted) {
+				final int action = table.getAction(this.states[this.size - 1], symbolId);
+				
+				switch (CompiledLRTable.getType(action)) {
+				case CompiledLRTable.SHIFT:
+					this.push(CompiledLRTable.getOperand(action), token);
 					
-					while (this.getDatum() instanceof Lexer.Token) {
-						this.datum = ((Lexer.Token) this.getDatum()).getDatum();
-					}
+					return ParsingStatus.SHIFTED;
+				case CompiledLRTable.REDUCE:
+					this.reduce(CompiledLRTable.getOperand(action));
+					
+					break;
+				default:
+					return ParsingStatus.ERROR;
 				}
-				
-				return action instanceof Shift ? ParsingStatus.SHIFTED : ParsingStatus.REDUCED;
 			}
 			
-			return this.tokens.get() == Special.END ? ParsingStatus.DONE : ParsingStatus.ERROR;
+			return token == Special.END ? ParsingStatus.DONE : ParsingStatus.ERROR;
 		}
 		
+		/**
+		 * Gives the current token back to the token source and continues as if the input ended there.
+		 */
 		public final Parsing setErrorMode() {
 			this.tokens.back();
 			
-			this.tokens = NO_TOKEN_SOURCE;
-			
-			last(this.stack).setToken(this.tokens.get());
+			this.errorMode = true;
+			this.lookAheadId = this.table.getSymbolId(Special.END);
 			
 			return this;
 		}
 		
+		private final int readLookAheadId() {
+			final TokenSource<?> tokens = this.tokens;
+			
+			if (tokens.isCharacterSource()) {
+				return this.table.getCharacterSymbolId(tokens.readCharacter());
+			}
+			
+			return this.table.getSymbolId(tokens.read().get());
+		}
+		
+		private final void push(final int stateIndex, final Object datum) {
+			if (this.size == this.states.length) {
+				this.states = Arrays.copyOf(this.states, 2 * this.size);
+				this.data = Arrays.copyOf(this.data, 2 * this.size);
+			}
+			
+			this.states[this.size] = stateIndex;
+			this.data[this.size] = datum;
+			this.datum = datum;
+			++this.size;
+		}
+		
+		private final void reduce(final int ruleIndex) {
+			final CompiledLRTable table = this.table;
+			final Rule rule = table.getRule(ruleIndex);
+			final RuleAction listener = rule.getAction();
+			final int developmentSize = table.getRuleSize(ruleIndex);
+			final int oldSize = this.size;
+			Object newDatum = null;
+			
+			this.size -= developmentSize;
+			
+			if (listener != null) {
+				final boolean keepingData = listener.isKeepingData();
+				final Object[] data = keepingData ? new Object[developmentSize] : this.getReusableData(developmentSize);
+				
+				for (int i = 0; i < developmentSize; ++i) {
+					data[i] = unwrap(this.data[this.size + i]);
+				}
+				
+				newDatum = listener.execute(rule, data);
+				
+				if (!keepingData) {
+					Arrays.fill(data, null);
+				}
+			}
+			
+			if (this.reductionListener != null) {
+				this.reductionListener.reduced(rule, newDatum);
+			}
+			
+			Arrays.fill(this.data, this.size, oldSize, null);
+			
+			final int next = table.getAction(this.states[this.size - 1], table.getRuleNonterminalId(ruleIndex));
+			
+			if (next == CompiledLRTable.ACCEPT) {
+				this.accepted = true;
+				this.datum = newDatum;
+			} else {
+				this.push(CompiledLRTable.getOperand(next), newDatum);
+			}
+		}
+		
+		private final Object[] getReusableData(final int size) {
+			if (this.reusableData.length <= size) {
+				this.reusableData = Arrays.copyOf(this.reusableData, size + 1);
+			}
+			
+			Object[] result = this.reusableData[size];
+			
+			if (result == null) {
+				result = new Object[size];
+				this.reusableData[size] = result;
+			}
+			
+			return result;
+		}
+		
 		/**
 		 * {@value}.
 		 */
@@ -371,6 +552,20 @@ public final class LRParser implements Serializable {
 		
 	}
 	
+	/**
+	 * Observes the reductions of a {@link Parsing}.
+	 * 
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public static abstract interface ReductionListener extends Serializable {
+		
+		/**
+		 * Called after the action of <code>rule</code> (if any) has returned <code>datum</code>.
+		 */
+		public abstract void reduced(Rule rule, Object datum);
+		
+	}
+	
 	/**
 	 * @author codistmonk (creation 2014-08-24)
 	 */
@@ -410,6 +605,19 @@ public final class LRParser implements Serializable {
 		
 	}
 	
-	public static final TokenSource<?> NO_TOKEN_SOURCE = new TokenSource<>(new ArrayList<>().iterator()).read();
+	/**
+	 * {@value}.
+	 */
+	public static final int INITIAL_STACK_CAPACITY = 16;
+	
+	public static final Object unwrap(final Object datum) {
+		Object result = datum;
+		
+		while (result instanceof Lexer.Token) {
+			result = ((Lexer.Token) result).getDatum();
+		}
+		
+		return result;
+	}
 	
 }
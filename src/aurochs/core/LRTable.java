@@ -4,16 +4,34 @@ import static aurochs.core.StackItem.last;
 import static multij.tools.Tools.cast;
 import static multij.tools.Tools.join;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiFunction;
+import java.util.function.IntFunction;
 
 import aurochs.core.Grammar.Rule;
 import aurochs.core.Grammar.RuleAction;
+import aurochs.core.Grammar.Special;
+import aurochs.core.Lexer.Token;
+import aurochs.core.LexerBuilder.StringCollector;
+import aurochs.core.LexerBuilder.StringTokenGenerator;
+import aurochs.core.ParserBuilder.Priority.Associativity;
 import multij.tools.Tools;
 
 /**
@@ -25,9 +43,25 @@ public final class LRTable implements Serializable {
 	
 	private final List<Map<Object, List<LRTable.Action>>> actions;
 	
+	private final List<Resolution> resolutions;
+	
+	private volatile CompiledLRTable compiledTable;
+	
 	public LRTable(final ClosureTable closureTable) {
+		this(closureTable, null);
+	}
+	
+	/**
+	 * Resolves the shift/reduce conflicts covered by <code>precedences</code> while building each cell,
+	 * like yacc; see {@link #getResolutions()}.
+	 * 
+	 * @param precedences
+	 * <br>Can be <code>null</code>
+	 */
+	public LRTable(final ClosureTable closureTable, final Precedences precedences) {
 		this.grammar = closureTable.getGrammar();
 		this.actions = new ArrayList<>();
+		this.resolutions = new ArrayList<>();
 		
 		final List<? extends ClosureTable.State> states = closureTable.getStates();
 		final int n = states.size();
@@ -36,7 +70,6 @@ public final class LRTable implements Serializable {
 			this.actions.add(new HashMap<>());
 		}
 		
-		
 		for (int i = 0; i < n; ++i) {
 			final ClosureTable.State state = states.get(i);
 			final Map<Object, List<LRTable.Action>> stateActions = this.actions.get(i);
@@ -54,9 +87,33 @@ public final class LRTable implements Serializable {
 					actions.add(new Reduce(this.getGrammar().getRules().get(ruleIndex)));
 				}
 			}
+			
+			if (precedences != null) {
+				for (final Iterator<Map.Entry<Object, List<Action>>> j = stateActions.entrySet().iterator(); j.hasNext();) {
+					final Map.Entry<Object, List<Action>> cell = j.next();
+					
+					if (1 < cell.getValue().size()) {
+						final Resolution resolution = precedences.resolve(i, cell.getKey(), cell.getValue());
+						
+						if (resolution != null) {
+							this.resolutions.add(resolution);
+							
+							if (cell.getValue().isEmpty()) {
+								j.remove();
+							}
+						}
+					}
+				}
+			}
 		}
 	}
 	
+	private LRTable(final Grammar grammar, final List<Map<Object, List<LRTable.Action>>> actions) {
+		this.grammar = grammar;
+		this.actions = actions;
+		this.resolutions = new ArrayList<>();
+	}
+	
 	public final Grammar getGrammar() {
 		return this.grammar;
 	}
@@ -65,6 +122,95 @@ public final class LRTable implements Serializable {
 		return this.actions;
 	}
 	
+	/**
+	 * @return The conflicts resolved with precedences during the construction of this table
+	 */
+	public final List<Resolution> getResolutions() {
+		return this.resolutions;
+	}
+	
+	/**
+	 * The result is cached until {@link #invalidateCompiledTable()} is called;
+	 * it is immutable and can be shared between threads.
+	 */
+	public final CompiledLRTable getCompiledTable() {
+		CompiledLRTable result = this.compiledTable;
+		
+		if (result == null) {
+			result = new CompiledLRTable(this);
+			this.compiledTable = result;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Must be called after modifying the lists returned by {@link #getActions()}.
+	 */
+	public final void invalidateCompiledTable() {
+		this.compiledTable = null;
+	}
+	
+	/**
+	 * Writes the symbols, the rule shapes and the actions of this table in a compact binary format.
+	 * <br>Rule actions are not written,
+	 * except for built-in ones ({@link StringCollector} and {@link StringTokenGenerator}).
+	 * <br><code>output</code> is flushed but not closed.
+	 */
+	public final void write(final OutputStream output) throws IOException {
+		final DataOutputStream data = new DataOutputStream(output);
+		final Grammar grammar = this.getGrammar();
+		final SymbolTable symbolTable = grammar.getSymbolTable();
+		final int symbolCount = symbolTable.getSymbolCount();
+		
+		data.writeInt(FORMAT_MAGIC);
+		writeVarInt(data, FORMAT_VERSION);
+		writeVarInt(data, symbolCount);
+		
+		for (int id = 0; id < symbolCount; ++id) {
+			writeSymbol(data, symbolTable.getSymbol(id));
+		}
+		
+		writeVarInt(data, grammar.getRules().size());
+		
+		for (final Rule rule : grammar.getRules()) {
+			final int[] development = rule.getDevelopmentIds();
+			final RuleAction action = rule.getAction();
+			
+			writeVarInt(data, rule.getNonterminalId());
+			writeVarInt(data, development.length);
+			
+			for (final int symbolId : development) {
+				writeVarInt(data, symbolId);
+			}
+			
+			if (action instanceof StringCollector) {
+				data.writeByte(ACTION_STRING_COLLECTOR);
+			} else if (action instanceof StringTokenGenerator) {
+				data.writeByte(ACTION_STRING_TOKEN_GENERATOR);
+			} else {
+				data.writeByte(ACTION_NONE);
+			}
+		}
+		
+		writeVarInt(data, this.getActions().size());
+		
+		for (final Map<Object, List<Action>> stateActions : this.getActions()) {
+			writeVarInt(data, stateActions.size());
+			
+			for (final Map.Entry<Object, List<Action>> entry : stateActions.entrySet()) {
+				writeVarInt(data, symbolTable.getId(entry.getKey()));
+				writeVarInt(data, entry.getValue().size());
+				
+				for (final Action action : entry.getValue()) {
+					writeVarInt(data, CompiledLRTable.encode(action));
+				}
+			}
+		}
+		
+		data.flush();
+	}
+	
 	public final List<List<Object>> collectAmbiguousExamples() {
 		final List<List<Object>> result = new ArrayList<>();
 		final List<Map<Object, List<Action>>> actions = this.getActions();
@@ -131,9 +277,440 @@ public final class LRTable implements Serializable {
 	 */
 	private static final long serialVersionUID = -3901998885688156104L;
 	
+	/**
+	 * {@value}.
+	 */
+	public static final int FORMAT_MAGIC = 0x4C52544C;
+	
+	/**
+	 * {@value}.
+	 */
+	public static final int FORMAT_VERSION = 1;
+	
+	public static final LRTable read(final InputStream input) throws IOException {
+		return read(input, ruleIndex -> null);
+	}
+	
+	/**
+	 * Reads a table written with {@link #write(OutputStream)} into a new grammar.
+	 * <br>Built-in rule actions are restored as their shared stateless instances
+	 * ({@link StringCollector#INSTANCE} and {@link StringTokenGenerator#INSTANCE}),
+	 * the other ones are given by <code>ruleActions</code>.
+	 * 
+	 * @param ruleActions
+	 * <br>Rule index -&gt; action (maybe null)
+	 */
+	public static final LRTable read(final InputStream input, final IntFunction<RuleAction> ruleActions)
+			throws IOException {
+		final DataInputStream data = new DataInputStream(input);
+		
+		if (data.readInt() != FORMAT_MAGIC) {
+			throw new IOException("Not an LR table");
+		}
+		
+		final int version = readVarInt(data);
+		
+		if (version != FORMAT_VERSION) {
+			throw new IOException("Unsupported format version: " + version);
+		}
+		
+		final Grammar grammar = new Grammar();
+		final SymbolTable symbolTable = grammar.getSymbolTable();
+		final int symbolCount = readVarInt(data);
+		
+		for (int id = 0; id < symbolCount; ++id) {
+			final Object symbol = readSymbol(data);
+			
+			if (symbolTable.intern(symbol) != id) {
+				throw new IOException("Duplicate symbol: " + symbol);
+			}
+		}
+		
+		final int ruleCount = readVarInt(data);
+		
+		for (int ruleIndex = 0; ruleIndex < ruleCount; ++ruleIndex) {
+			final Object nonterminal = symbolTable.getSymbol(readVarInt(data));
+			final Object[] development = new Object[readVarInt(data)];
+			
+			for (int i = 0; i < development.length; ++i) {
+				development[i] = symbolTable.getSymbol(readVarInt(data));
+			}
+			
+			final Rule rule = grammar.new Rule(nonterminal, development);
+			
+			switch (data.readByte()) {
+			case ACTION_STRING_COLLECTOR:
+				rule.setAction(StringCollector.INSTANCE);
+				break;
+			case ACTION_STRING_TOKEN_GENERATOR:
+				rule.setAction(StringTokenGenerator.INSTANCE);
+				break;
+			default:
+				rule.setAction(ruleActions.apply(ruleIndex));
+				break;
+			}
+		}
+		
+		symbolTable.mapCharacterClasses();
+		
+		final List<Rule> rules = grammar.getRules();
+		final int stateCount = readVarInt(data);
+		final List<Map<Object, List<Action>>> actions = new ArrayList<>(stateCount);
+		
+		for (int stateIndex = 0; stateIndex < stateCount; ++stateIndex) {
+			final int cellCount = readVarInt(data);
+			final Map<Object, List<Action>> stateActions = new HashMap<>();
+			
+			for (int i = 0; i < cellCount; ++i) {
+				final Object symbol = symbolTable.getSymbol(readVarInt(data));
+				final int actionCount = readVarInt(data);
+				final List<Action> cell = new ArrayList<>(actionCount);
+				
+				for (int j = 0; j < actionCount; ++j) {
+					final int action = readVarInt(data);
+					
+					switch (CompiledLRTable.getType(action)) {
+					case CompiledLRTable.SHIFT:
+						cell.add(new Shift(CompiledLRTable.getOperand(action)));
+						break;
+					case CompiledLRTable.REDUCE:
+						cell.add(new Reduce(rules.get(CompiledLRTable.getOperand(action))));
+						break;
+					default:
+						throw new IOException("Invalid action: " + action);
+					}
+				}
+				
+				stateActions.put(symbol, cell);
+			}
+			
+			actions.add(stateActions);
+		}
+		
+		return new LRTable(grammar, actions);
+	}
+	
+	public static final void writeVarInt(final DataOutput output, final int value) throws IOException {
+		int remaining = value;
+		
+		while ((remaining & ~0x7F) != 0) {
+			output.writeByte((remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		
+		output.writeByte(remaining);
+	}
+	
+	public static final int readVarInt(final DataInput input) throws IOException {
+		int result = 0;
+		
+		for (int shift = 0; shift < 32; shift += 7) {
+			final int b = input.readUnsignedByte();
+			
+			result |= (b & 0x7F) << shift;
+			
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		
+		throw new IOException("Invalid varint");
+	}
+	
+	/**
+	 * Writes <code>symbol</code> with a tag for {@link Special#END}, {@link Character}, {@link Integer}, {@link String}
+	 * and {@link Token}; other symbols are serialized.
+	 */
+	public static final void writeSymbol(final DataOutputStream output, final Object symbol) throws IOException {
+		if (symbol == Special.END) {
+			output.writeByte(SYMBOL_END);
+		} else if (symbol instanceof Character) {
+			output.writeByte(SYMBOL_CHARACTER);
+			output.writeChar((Character) symbol);
+		} else if (symbol instanceof Integer) {
+			output.writeByte(SYMBOL_INTEGER);
+			output.writeInt((Integer) symbol);
+		} else if (symbol instanceof String) {
+			output.writeByte(SYMBOL_STRING);
+			output.writeUTF((String) symbol);
+		} else if (symbol instanceof Token) {
+			output.writeByte(SYMBOL_TOKEN);
+			writeSymbol(output, ((Token) symbol).getNonterminal());
+			writeSymbol(output, ((Token) symbol).getDatum());
+		} else if (symbol instanceof CharClass) {
+			final CharClass characterClass = (CharClass) symbol;
+			final int n = characterClass.getRangeCount();
+			
+			output.writeByte(SYMBOL_CHAR_CLASS);
+			writeVarInt(output, n);
+			
+			for (int i = 0; i < n; ++i) {
+				output.writeChar(characterClass.getFirst(i));
+				output.writeChar(characterClass.getLast(i));
+			}
+		} else {
+			final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			
+			try (final ObjectOutputStream objectOutput = new ObjectOutputStream(buffer)) {
+				objectOutput.writeObject(symbol);
+			}
+			
+			output.writeByte(SYMBOL_SERIALIZED);
+			writeVarInt(output, buffer.size());
+			buffer.writeTo(output);
+		}
+	}
+	
+	public static final Object readSymbol(final DataInputStream input) throws IOException {
+		final int tag = input.readByte();
+		
+		switch (tag) {
+		case SYMBOL_END:
+			return Special.END;
+		case SYMBOL_CHARACTER:
+			return input.readChar();
+		case SYMBOL_INTEGER:
+			return input.readInt();
+		case SYMBOL_STRING:
+			return input.readUTF();
+		case SYMBOL_TOKEN:
+			return new Token(readSymbol(input), readSymbol(input));
+		case SYMBOL_CHAR_CLASS:
+			CharClass characterClass = CharClass.of();
+			
+			for (int i = readVarInt(input); 0 < i; --i) {
+				characterClass = characterClass.union(CharClass.range(input.readChar(), input.readChar()));
+			}
+			
+			return characterClass;
+		case SYMBOL_SERIALIZED:
+			final byte[] buffer = new byte[readVarInt(input)];
+			
+			input.readFully(buffer);
+			
+			try (final ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(buffer))) {
+				return objectInput.readObject();
+			} catch (final ClassNotFoundException exception) {
+				throw new IOException(exception);
+			}
+		default:
+			throw new IOException("Invalid symbol tag: " + tag);
+		}
+	}
+	
+	private static final int SYMBOL_END = 0;
+	
+	private static final int SYMBOL_CHARACTER = 1;
+	
+	private static final int SYMBOL_INTEGER = 2;
+	
+	private static final int SYMBOL_STRING = 3;
+	
+	private static final int SYMBOL_TOKEN = 4;
+	
+	private static final int SYMBOL_SERIALIZED = 5;
+	
+	private static final int SYMBOL_CHAR_CLASS = 6;
+	
+	private static final int ACTION_NONE = 0;
+	
+	private static final int ACTION_STRING_COLLECTOR = 1;
+	
+	private static final int ACTION_STRING_TOKEN_GENERATOR = 2;
+	
 	public static final BiFunction<? super Object, ? super List<Action>,
 			? extends List<Action>> GET_OR_CREATE_ARRAY_LIST = (k, v) -> v == null ? new ArrayList<>() : v;
 	
+	/**
+	 * Yacc-style precedences: terminals are given a level and an associativity, and rules get the precedence
+	 * of their last terminal that has one, unless set explicitly (like yacc's <code>%prec</code>).
+	 * <br>In a shift/reduce conflict, the action with the higher level wins;
+	 * on equal levels, the associativity of the terminal decides ({@link Associativity#NONE} leaves an error).
+	 * 
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public static final class Precedences implements Serializable {
+		
+		private final Map<Object, Integer> levels;
+		
+		private final Map<Integer, Associativity> associativities;
+		
+		private final Map<Integer, Object> ruleTerminals;
+		
+		public Precedences() {
+			this.levels = new HashMap<>();
+			this.associativities = new HashMap<>();
+			this.ruleTerminals = new HashMap<>();
+		}
+		
+		/**
+		 * Higher levels bind tighter; all the terminals of a level share the same associativity.
+		 */
+		public final Precedences declare(final int level, final Associativity associativity,
+				final Object... terminals) {
+			final Associativity oldAssociativity = this.associativities.putIfAbsent(level, associativity);
+			
+			if (oldAssociativity != null && oldAssociativity != associativity) {
+				throw new IllegalArgumentException("Level " + level + " is already " + oldAssociativity);
+			}
+			
+			for (final Object terminal : terminals) {
+				this.levels.put(terminal, level);
+			}
+			
+			return this;
+		}
+		
+		/**
+		 * Gives <code>rule</code> the precedence of <code>terminal</code>,
+		 * which doesn't need to appear in the grammar.
+		 */
+		public final Precedences setRulePrecedence(final Rule rule, final Object terminal) {
+			this.ruleTerminals.put(rule.getIndex(), terminal);
+			
+			return this;
+		}
+		
+		/**
+		 * @return <code>null</code> if <code>terminal</code> has no precedence
+		 */
+		public final Integer getLevel(final Object terminal) {
+			return this.levels.get(terminal);
+		}
+		
+		/**
+		 * @return <code>null</code> if <code>rule</code> has no precedence
+		 */
+		public final Integer getLevel(final Rule rule) {
+			final Object terminal = this.ruleTerminals.get(rule.getIndex());
+			
+			if (terminal != null) {
+				return this.getLevel(terminal);
+			}
+			
+			final Object[] development = rule.getDevelopment();
+			
+			for (int i = development.length - 1; 0 <= i; --i) {
+				final Integer result = this.getLevel(development[i]);
+				
+				if (result != null) {
+					return result;
+				}
+			}
+			
+			return null;
+		}
+		
+		/**
+		 * Removes from <code>cell</code> the actions that lose a shift/reduce conflict.
+		 * 
+		 * @return <code>null</code> if nothing was resolved
+		 */
+		final Resolution resolve(final int stateIndex, final Object symbol, final List<Action> cell) {
+			final Integer symbolLevel = this.getLevel(symbol);
+			final Action shift = symbolLevel == null ? null
+					: cell.stream().filter(action -> action instanceof Shift).findAny().orElse(null);
+			
+			if (shift == null) {
+				return null;
+			}
+			
+			final Associativity associativity = this.associativities.get(symbolLevel);
+			final List<Action> candidates = new ArrayList<>(cell);
+			boolean shifting = true;
+			boolean resolved = false;
+			
+			for (final Iterator<Action> i = cell.iterator(); i.hasNext();) {
+				final Action action = i.next();
+				final Integer ruleLevel = action instanceof Reduce ? this.getLevel(((Reduce) action).getRule()) : null;
+				
+				if (ruleLevel != null) {
+					resolved = true;
+					
+					if (ruleLevel < symbolLevel || ruleLevel.equals(symbolLevel) && associativity == Associativity.RIGHT) {
+						i.remove();
+					} else {
+						shifting = false;
+						
+						if (ruleLevel.equals(symbolLevel) && associativity == Associativity.NONE) {
+							i.remove();
+						}
+					}
+				}
+			}
+			
+			if (!resolved) {
+				return null;
+			}
+			
+			if (!shifting) {
+				cell.remove(shift);
+			}
+			
+			return new Resolution(stateIndex, symbol, candidates, new ArrayList<>(cell));
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = 2185064452003364931L;
+		
+	}
+	
+	/**
+	 * A conflict resolved with {@link Precedences}.
+	 * 
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public static final class Resolution implements Serializable {
+		
+		private final int stateIndex;
+		
+		private final Object symbol;
+		
+		private final List<Action> candidates;
+		
+		private final List<Action> choices;
+		
+		public Resolution(final int stateIndex, final Object symbol, final List<Action> candidates,
+				final List<Action> choices) {
+			this.stateIndex = stateIndex;
+			this.symbol = symbol;
+			this.candidates = candidates;
+			this.choices = choices;
+		}
+		
+		public final int getStateIndex() {
+			return this.stateIndex;
+		}
+		
+		public final Object getSymbol() {
+			return this.symbol;
+		}
+		
+		public final List<Action> getCandidates() {
+			return this.candidates;
+		}
+		
+		/**
+		 * @return The remaining actions; empty for an error (non-associative terminal)
+		 */
+		public final List<Action> getChoices() {
+			return this.choices;
+		}
+		
+		@Override
+		public final String toString() {
+			return this.getStateIndex() + " " + this.getSymbol() + ": " + this.getCandidates() + " -> " + this.getChoices();
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = -8497383893410713624L;
+		
+	}
+	
 	/**
 	 * @author codistmonk (creation 2014-08-24)
 	 */
@@ -208,10 +785,16 @@ public final class LRTable implements Serializable {
 		
 		@Override
 		public final void perform(final List<StackItem> stack, final TokenSource<?> tokens) {
+			this.perform(stack, tokens, this.getRule().getAction());
+		}
+		
+		/**
+		 * Reduces with <code>listener</code> instead of the action of the rule.
+		 */
+		public final void perform(final List<StackItem> stack, final TokenSource<?> tokens, final RuleAction listener) {
 			final int stackSize = stack.size();
 			final int developmentSize = this.getRule().getDevelopment().length;
 			final List<StackItem> tail = stack.subList(stackSize - 1 - developmentSize, stackSize - 1);
-			final RuleAction listener = this.getRule().getAction();
 			final Object newToken = this.getRule().getNonterminal();
 			Object newDatum = null;
 			
@@ -1,7 +1,23 @@
 package aurochs.core;
 
+import static aurochs.core.TokenSource.tokens;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+import aurochs.core.Grammar.RuleAction;
+import aurochs.core.LRParser.Parsing;
 
 import multij.tools.Tools;
 
@@ -12,55 +28,245 @@ public final class Lexer implements Serializable {
 	
 	private final LRParser parser;
 	
-	private final Token[] tokenBox;
-	
-	public Lexer(final LRParser parser, final Token[] tokenBox) {
+	public Lexer(final LRParser parser) {
 		this.parser = parser;
-		this.tokenBox = tokenBox;
 	}
 	
 	public final LRParser getParser() {
 		return this.parser;
 	}
 	
+	/**
+	 * Writes the table of the parser with {@link LRTable#write(OutputStream)}.
+	 */
+	public final void write(final OutputStream output) throws IOException {
+		this.getParser().getTable().write(output);
+	}
+	
+	/**
+	 * Can be called concurrently: each call uses its own {@link Session}.
+	 */
 	public final TokenSource<Token> translate(final TokenSource<?> input) {
-		final LRParser parser = this.getParser();
-		final Token[] tokenBox = this.tokenBox;
+		return this.new Session().translate(input);
+	}
+	
+	/**
+	 * Lexes <code>input</code> from <code>start</code>, which must be a token boundary
+	 * (the end of a token or of skipped text) to give the same tokens as a translation from <code>0</code>;
+	 * token spans are absolute.
+	 * <br>Can be called concurrently.
+	 * 
+	 * @see IncrementalLexer
+	 */
+	public final TokenSource<Token> translate(final CharSequence input, final int start) {
+		return this.translate(tokens(input, start));
+	}
+	
+	/**
+	 * Lexes chunks of <code>input</code> concurrently in <code>pool</code> and concatenates their tokens;
+	 * the result is the same as with {@link #translate(TokenSource)}.
+	 * <br>Each chunk is lexed until its first token at or after the start of the next chunk;
+	 * if that token isn't the first token of the next chunk (because a token straddles their boundary),
+	 * the next chunk is lexed again from there.
+	 * 
+	 * @param chunkSize
+	 * <br>Range: <code>[1 .. Integer.MAX_VALUE]</code>
+	 * @param boundaries
+	 * <br>Tells whether a chunk can start at a given index;
+	 * it only needs to avoid splitting tokens most of the time, see {@link #afterLineBreaks(CharSequence)}
+	 */
+	public final List<Token> translateInChunks(final CharSequence input, final int chunkSize,
+			final IntPredicate boundaries, final ForkJoinPool pool) {
+		final int n = input.length();
+		final List<ForkJoinTask<Chunk>> chunks = new ArrayList<>();
+		int start = 0;
 		
-		return new TokenSource<>(new Iterator<Token>() {
-			
-			private boolean parsingStatus = parser.parsePrefix(input);
+		while (start < n) {
+			int end = (int) Math.min(n, (long) start + chunkSize);
 			
-			@Override
-			public final Token next() {
-				return takeFrom(tokenBox);
+			while (end < n && !boundaries.test(end)) {
+				++end;
 			}
 			
-			@Override
-			public final boolean hasNext() {
-				while (tokenBox[0] == null && this.parsingStatus) {
-					this.parsingStatus = parser.parsePrefix(input);
+			final int chunkStart = start;
+			final int chunkEnd = end;
+			
+			chunks.add(pool.submit(() -> this.translateChunk(input, chunkStart, chunkEnd)));
+			
+			start = end;
+		}
+		
+		final List<Token> result = new ArrayList<>();
+		Token lookAhead = null;
+		
+		for (int i = 0; i < chunks.size(); ++i) {
+			Chunk chunk = chunks.get(i).join();
+			
+			if (0 < i) {
+				if (lookAhead == null) {
+					chunks.subList(i, chunks.size()).forEach(task -> task.cancel(false));
+					break;
 				}
 				
-				return tokenBox[0] != null || this.parsingStatus;
+				if (!isSameToken(lookAhead, chunk.getFirstToken())) {
+					chunk = this.translateChunk(input, (int) lookAhead.getStart(), chunk.getEnd());
+				}
+			}
+			
+			result.addAll(chunk.getTokens());
+			lookAhead = chunk.getLookAhead();
+		}
+		
+		return result;
+	}
+	
+	final Chunk translateChunk(final CharSequence input, final int start, final int end) {
+		final List<Token> tokens = new ArrayList<>();
+		
+		for (final Token token : this.translate(input, start)) {
+			if (end <= token.getStart()) {
+				return new Chunk(end, tokens, token);
 			}
 			
-		});
+			tokens.add(token);
+		}
+		
+		return new Chunk(end, tokens, null);
 	}
 	
 	/**
-	 * {@value}.
+	 * Lexes one input at a time, reusing the same parsing state for all its tokens;
+	 * a session must not be shared between threads.
+	 * 
+	 * @author codistmonk (creation 2026-10-17)
 	 */
-	private static final long serialVersionUID = 4768669397408042988L;
-	
-	public static final <T> T takeFrom(final T[] t) {
-		final T result = t[0];
+	public final class Session implements Serializable {
+		
+		private Parsing parsing;
 		
-		if (result != null) {
-			t[0] = null;
+		private Token generatedToken;
+		
+		private long unlexedOffset = -1L;
+		
+		public final Lexer getLexer() {
+			return Lexer.this;
 		}
 		
-		return result;
+		/**
+		 * A translation stops at the first text that can't be lexed.
+		 * 
+		 * @return The offset of that text in the last translation of this session that stopped,
+		 * or <code>-1</code> if it reached the end of its input
+		 */
+		public final long getUnlexedOffset() {
+			return this.unlexedOffset;
+		}
+		
+		/**
+		 * The previous translation of this session must not be used anymore.
+		 */
+		public final TokenSource<Token> translate(final TokenSource<?> input) {
+			this.unlexedOffset = -1L;
+			
+			return new TokenSource<>(new Iterator<Token>() {
+				
+				private Token token;
+				
+				private boolean parsingStatus = this.parsePrefix();
+				
+				@Override
+				public final Token next() {
+					final Token result = this.token;
+					
+					this.token = null;
+					
+					return result;
+				}
+				
+				@Override
+				public final boolean hasNext() {
+					while (this.token == null && this.parsingStatus) {
+						this.parsingStatus = this.parsePrefix();
+					}
+					
+					return this.token != null || this.parsingStatus;
+				}
+				
+				/**
+				 * The lookahead that ends a token is given back to <code>input</code>,
+				 * so its offset is both the end of that token and the start of the next one.
+				 */
+				private final boolean parsePrefix() {
+					final Session session = Session.this;
+					
+					if (session.parsing == null) {
+						session.parsing = Lexer.this.getParser().new Parsing(input).setReductionListener(
+								(rule, datum) -> {
+									if (datum instanceof Token) {
+										session.generatedToken = (Token) datum;
+									}
+								});
+					} else {
+						session.parsing.reset(input);
+					}
+					
+					final long start = input.getOffset();
+					
+					session.generatedToken = null;
+					
+					final boolean result = session.parsing.parsePrefix();
+					
+					this.token = session.generatedToken;
+					
+					if (this.token != null) {
+						this.token.setSpan(start, input.isCharacterSource() ? input.getOffset() : -1L);
+					}
+					
+					if (!result && (input.getOffset() != start || input.getCharacter() != TokenSource.END_OF_CHARACTERS)) {
+						session.unlexedOffset = start;
+					}
+					
+					return result;
+				}
+				
+			});
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = -1745339829093419557L;
+		
+	}
+	
+	/**
+	 * {@value}.
+	 */
+	private static final long serialVersionUID = 4768669397408042988L;
+	
+	/**
+	 * Chunk boundaries for {@link #translateInChunks(CharSequence, int, IntPredicate, ForkJoinPool)}
+	 * at the start of lines.
+	 */
+	public static final IntPredicate afterLineBreaks(final CharSequence input) {
+		return index -> input.charAt(index - 1) == '\n';
+	}
+	
+	static final boolean isSameToken(final Token token1, final Token token2) {
+		return token2 != null && token1.equals(token2)
+				&& token1.getStart() == token2.getStart() && token1.getEnd() == token2.getEnd();
+	}
+	
+	public static final Lexer read(final InputStream input) throws IOException {
+		return read(input, ruleIndex -> null);
+	}
+	
+	/**
+	 * Reads a lexer written with {@link #write(OutputStream)}; see {@link LRTable#read(InputStream, IntFunction)}.
+	 */
+	public static final Lexer read(final InputStream input, final IntFunction<RuleAction> ruleActions)
+			throws IOException {
+		return new Lexer(new LRParser(LRTable.read(input, ruleActions)));
 	}
 	
 	/**
@@ -72,17 +278,52 @@ public final class Lexer implements Serializable {
 		
 		private final Object datum;
 		
+		private long start;
+		
+		private long end;
+		
 		public Token(final Object nonterminal, final Object datum) {
+			this(nonterminal, datum, -1L, -1L);
+		}
+		
+		public Token(final Object nonterminal, final Object datum, final long start, final long end) {
 			this.nonterminal = nonterminal;
 			this.datum = datum;
+			this.start = start;
+			this.end = end;
 		}
 		
 		public final Object getNonterminal() {
 			return this.nonterminal;
 		}
 		
+		/**
+		 * @return The datum of this token, a {@link Text} being replaced with its string
+		 */
 		public final Object getDatum() {
-			return this.datum;
+			return this.datum instanceof Text ? this.datum.toString() : this.datum;
+		}
+		
+		/**
+		 * @return The offset of the first character of this token in its source
+		 * (see {@link TokenSource#getOffset()}), or <code>-1</code>
+		 */
+		public final long getStart() {
+			return this.start;
+		}
+		
+		/**
+		 * @return The offset following the last character of this token in its source, or <code>-1</code>
+		 */
+		public final long getEnd() {
+			return this.end;
+		}
+		
+		final Token setSpan(final long start, final long end) {
+			this.start = start;
+			this.end = end;
+			
+			return this;
 		}
 		
 		@Override
@@ -112,4 +353,221 @@ public final class Lexer implements Serializable {
 		
 	}
 	
+	/**
+	 * The tokens that start in <code>[.. end[</code>, followed by the first token that starts after.
+	 * 
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	static final class Chunk {
+		
+		private final int end;
+		
+		private final List<Token> tokens;
+		
+		private final Token lookAhead;
+		
+		Chunk(final int end, final List<Token> tokens, final Token lookAhead) {
+			this.end = end;
+			this.tokens = tokens;
+			this.lookAhead = lookAhead;
+		}
+		
+		final int getEnd() {
+			return this.end;
+		}
+		
+		final List<Token> getTokens() {
+			return this.tokens;
+		}
+		
+		final Token getLookAhead() {
+			return this.lookAhead;
+		}
+		
+		final Token getFirstToken() {
+			return this.tokens.isEmpty() ? this.lookAhead : this.tokens.get(0);
+		}
+		
+	}
+	
+	/**
+	 * Token text built from rule data with linear copying: a text is either a flat buffer, to which
+	 * a left-recursive rule appends in place, or a reference to its parts when a text isn't in first position;
+	 * it is materialized (once) by {@link #toString()} or the other {@link CharSequence} methods.
+	 * <br>A text is built by a single thread, but once built it can be read from several threads
+	 * (materialization is synchronized).
+	 * 
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public static final class Text implements CharSequence, Serializable {
+		
+		private StringBuilder builder;
+		
+		private Object[] parts;
+		
+		private final int partsLength;
+		
+		private volatile String string;
+		
+		private Text(final StringBuilder builder) {
+			this.builder = builder;
+			this.partsLength = 0;
+		}
+		
+		private Text(final Object[] parts, final int partsLength) {
+			this.parts = parts;
+			this.partsLength = partsLength;
+		}
+		
+		@Override
+		public final int length() {
+			final String string = this.string;
+			
+			if (string != null) {
+				return string.length();
+			}
+			
+			final CharSequence contents = this.getContents();
+			
+			return contents == this ? this.partsLength : contents.length();
+		}
+		
+		@Override
+		public final char charAt(final int index) {
+			return this.toString().charAt(index);
+		}
+		
+		@Override
+		public final CharSequence subSequence(final int start, final int end) {
+			return this.toString().substring(start, end);
+		}
+		
+		@Override
+		public final String toString() {
+			final String result = this.string;
+			
+			return result != null ? result : this.materialize();
+		}
+		
+		/**
+		 * @return The string, the buffer, or this text if it is still made of parts
+		 */
+		private final synchronized CharSequence getContents() {
+			if (this.string != null) {
+				return this.string;
+			}
+			
+			return this.builder != null ? this.builder : this;
+		}
+		
+		private final synchronized String materialize() {
+			if (this.string == null) {
+				if (this.builder != null) {
+					this.string = this.builder.toString();
+				} else {
+					final StringBuilder resultBuilder = new StringBuilder(this.partsLength);
+					final Deque<Object> todo = new ArrayDeque<>();
+					
+					todo.push(this);
+					
+					while (!todo.isEmpty()) {
+						final Object part = todo.pop();
+						final Object[] parts = part instanceof Text ? ((Text) part).parts : null;
+						
+						if (parts != null) {
+							for (int i = parts.length - 1; 0 <= i; --i) {
+								if (parts[i] != null) {
+									todo.push(parts[i]);
+								}
+							}
+						} else {
+							append(resultBuilder, part);
+						}
+					}
+					
+					this.string = resultBuilder.toString();
+				}
+				
+				this.builder = null;
+				this.parts = null;
+			}
+			
+			return this.string;
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = 4350813010306932322L;
+		
+		/**
+		 * Rule data are consumed by a single reduction, so a flat text in first position can be extended in place;
+		 * <code>data</code> itself isn't kept.
+		 * 
+		 * @param data
+		 * <br>Characters, character sequences or other objects (converted with {@link String#valueOf(Object)});
+		 * nulls are ignored
+		 */
+		public static final Text concat(final Object... data) {
+			final int n = data.length;
+			
+			if (n == 1 && data[0] instanceof Text) {
+				return (Text) data[0];
+			}
+			
+			final Text first = 0 < n ? Tools.cast(Text.class, data[0]) : null;
+			
+			if (first != null && first.builder != null) {
+				for (int i = 1; i < n; ++i) {
+					append(first.builder, data[i]);
+				}
+				
+				return first;
+			}
+			
+			boolean flat = true;
+			
+			for (int i = 0; i < n && flat; ++i) {
+				flat = !(data[i] instanceof Text);
+			}
+			
+			if (flat) {
+				final Text result = new Text(new StringBuilder());
+				
+				for (final Object datum : data) {
+					append(result.builder, datum);
+				}
+				
+				return result;
+			}
+			
+			int length = 0;
+			
+			for (final Object datum : data) {
+				if (datum instanceof Character) {
+					++length;
+				} else if (datum instanceof CharSequence) {
+					length += ((CharSequence) datum).length();
+				} else if (datum != null) {
+					length += String.valueOf(datum).length();
+				}
+			}
+			
+			return new Text(data.clone(), length);
+		}
+		
+		private static final void append(final StringBuilder builder, final Object datum) {
+			if (datum instanceof Character) {
+				builder.append((char) (Character) datum);
+			} else if (datum instanceof Text) {
+				final CharSequence contents = ((Text) datum).getContents();
+				
+				builder.append(contents == datum ? datum.toString() : contents);
+			} else if (datum != null) {
+				builder.append(datum);
+			}
+		}
+		
+	}
+	
 }
\ No newline at end of file
@@ -1,11 +1,17 @@
 package aurochs.core;
 
-import static multij.tools.Tools.join;
-
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 import aurochs.core.Grammar.Rule;
 import aurochs.core.Grammar.RuleAction;
+import aurochs.core.Lexer.Text;
 import aurochs.core.Lexer.Token;
 
 /**
@@ -15,8 +21,6 @@ public final class LexerBuilder implements Serializable {
 	
 	private final Grammar grammar;
 	
-	private final Token[] tokenBox;
-	
 	private final LexerBuilder.TokenGenerator defaultTokenGenerator;
 	
 	private final RuleAction defaultRuleAction;
@@ -25,19 +29,24 @@ public final class LexerBuilder implements Serializable {
 	
 	private final Object commonNonterminal;
 	
+	private final List<Declaration> declarations;
+	
+	private final Map<Object, List<Object[]>> definitions;
+	
 	private int newToken;
 	
 	public LexerBuilder() {
-		this(new StringTokenGenerator(new Token[1]), StringCollector.INSTANCE);
+		this(StringTokenGenerator.INSTANCE, StringCollector.INSTANCE);
 	}
 	
 	public LexerBuilder(final LexerBuilder.TokenGenerator defaultTokenGenerator, final RuleAction defaultRuleAction) {
 		this.grammar = new Grammar();
-		this.tokenBox = defaultTokenGenerator.getTokenBox();
 		this.defaultTokenGenerator = defaultTokenGenerator;
 		this.defaultRuleAction = defaultRuleAction;
 		this.initialNonterminal = this.newToken();
 		this.commonNonterminal = this.newToken();
+		this.declarations = new ArrayList<>();
+		this.definitions = new HashMap<>();
 		
 		this.grammar.new Rule(this.initialNonterminal, this.commonNonterminal);
 	}
@@ -50,12 +59,8 @@ public final class LexerBuilder implements Serializable {
 		return this.defaultRuleAction;
 	}
 	
-	public final Token[] getTokenBox() {
-		return this.tokenBox;
-	}
-	
 	public final Lexer newLexer(final ClosureTable closureTable) {
-		final Lexer result = new Lexer(new LRParser(new LRTable(closureTable)), this.getTokenBox());
+		final Lexer result = new Lexer(new LRParser(new LRTable(closureTable)));
 		
 		result.getParser().getTable().printAmbiguities();
 		
@@ -66,28 +71,106 @@ public final class LexerBuilder implements Serializable {
 		return this.newLexer(new LALR1ClosureTable(this.getGrammar()));
 	}
 	
+	/**
+	 * Partitions the characters used by the grammar into disjoint atoms, which become its only character terminals:
+	 * every other {@link CharClass} becomes a nonterminal with one rule per atom it contains.
+	 * <br>Input characters are then mapped to atoms by the symbol table once the grammar is frozen.
+	 * <br>Classes that are already split are left as they are, so this can be called again after adding rules.
+	 * 
+	 * @return The grammar
+	 */
+	public final Grammar splitCharacterClasses() {
+		final Grammar grammar = this.grammar;
+		final SymbolTable symbolTable = grammar.getSymbolTable();
+		final Collection<CharClass> characterClasses = new LinkedHashSet<>();
+		
+		for (int id = 0; id < symbolTable.getSymbolCount(); ++id) {
+			final CharClass characterClass = CharClass.toCharClass(symbolTable.getSymbol(id));
+			
+			if (characterClass != null) {
+				characterClasses.add(characterClass);
+			}
+		}
+		
+		final List<CharClass> atoms = CharClass.partition(characterClasses);
+		
+		for (final CharClass characterClass : characterClasses) {
+			final int id = symbolTable.getId(characterClass);
+			
+			if (0 <= id && !symbolTable.isNonterminal(id) && !atoms.contains(characterClass)) {
+				for (final CharClass atom : atoms) {
+					if (characterClass.contains(atom.getFirst(0))) {
+						grammar.new Rule(characterClass, CharClass.simplify(atom)).setAction(this.getDefaultRuleAction());
+					}
+				}
+			}
+		}
+		
+		return grammar;
+	}
+	
+	public final DFALexer newDFALexer() {
+		return new DFALexer(this);
+	}
+	
+	/**
+	 * @return The tokens declared with {@link #generate(Object, Object...)} and {@link #skip(Object...)},
+	 * in declaration order
+	 */
+	public final List<Declaration> getDeclarations() {
+		return this.declarations;
+	}
+	
+	/**
+	 * @return The developments of each nonterminal, as given to {@link #generate(Object, Object...)},
+	 * {@link #skip(Object...)} and {@link #define(Object, Object...)}
+	 */
+	public final Map<Object, List<Object[]>> getDefinitions() {
+		return this.definitions;
+	}
+	
+	/**
+	 * @return The grammar, with its character classes split (see {@link #splitCharacterClasses()})
+	 */
 	public final Grammar getGrammar() {
-		return this.grammar;
+		return this.splitCharacterClasses();
 	}
 	
 	public final Rule generate(final Object token, final Object... development) {
-		this.getGrammar().new Rule(this.commonNonterminal, token);
+		this.grammar.new Rule(this.commonNonterminal, token);
 		
-		return this.getGrammar().new Rule(token,
+		final Rule result = this.grammar.new Rule(token,
 				this.computeActualDevelopment(development)).setAction(this.getDefaultTokenGenerator());
+		
+		this.record(token, development);
+		this.getDeclarations().add(new Declaration(result, development, false));
+		
+		return result;
 	}
 	
 	public final Rule skip(final Object... development) {
 		final Object token = this.newToken();
 		
-		this.getGrammar().new Rule(this.commonNonterminal, token);
+		this.grammar.new Rule(this.commonNonterminal, token);
+		
+		final Rule result = this.define(token, development);
 		
-		return this.define(token, development);
+		this.getDeclarations().add(new Declaration(result, development, true));
+		
+		return result;
 	}
 	
 	public final Rule define(final Object nonterminal, final Object... development) {
-		return this.getGrammar().new Rule(nonterminal,
+		final Rule result = this.grammar.new Rule(nonterminal,
 				this.computeActualDevelopment(development)).setAction(this.getDefaultRuleAction());
+		
+		this.record(nonterminal, development);
+		
+		return result;
+	}
+	
+	private final void record(final Object nonterminal, final Object... development) {
+		this.getDefinitions().computeIfAbsent(nonterminal, k -> new ArrayList<>()).add(development);
 	}
 	
 	public final Object newToken() {
@@ -95,6 +178,10 @@ public final class LexerBuilder implements Serializable {
 	}
 	
 	final Object symbol(final Object symbol) {
+		if (symbol instanceof CharClass) {
+			return CharClass.simplify((CharClass) symbol);
+		}
+		
 		return symbol instanceof LexerBuilder.Regular ?
 				((LexerBuilder.Regular) symbol).updateRules(this) : symbol;
 	}
@@ -135,14 +222,64 @@ public final class LexerBuilder implements Serializable {
 		return new Sequence(symbols);
 	}
 	
-	public static final Object[] range(final char first, final char last) {
-		final Object[] result = new Object[1 + last - first];
+	public static final CharClass range(final char first, final char last) {
+		return CharClass.range(first, last);
+	}
+	
+	/**
+	 * @return The characters not in <code>symbols</code>, which must be characters, {@link CharClass}es
+	 * or unions of those
+	 */
+	public static final CharClass not(final Object... symbols) {
+		final CharClass result = Union.toCharClass(symbols);
 		
-		for (char c = first; c <= last; ++c) {
-			result[c - first] = c;
+		if (result == null) {
+			throw new IllegalArgumentException("Not a character class: " + Arrays.toString(symbols));
 		}
 		
-		return result;
+		return result.negate();
+	}
+	
+	/**
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public static final class Declaration implements Serializable {
+		
+		private final Rule rule;
+		
+		private final Object[] development;
+		
+		private final boolean skip;
+		
+		public Declaration(final Rule rule, final Object[] development, final boolean skip) {
+			this.rule = rule;
+			this.development = development;
+			this.skip = skip;
+		}
+		
+		/**
+		 * @return The grammar rule of the token, whose action generates the token
+		 */
+		public final Rule getRule() {
+			return this.rule;
+		}
+		
+		/**
+		 * @return The development as given to the lexer builder (possibly containing {@link Regular}s)
+		 */
+		public final Object[] getDevelopment() {
+			return this.development;
+		}
+		
+		public final boolean isSkip() {
+			return this.skip;
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = 3995326263658216950L;
+		
 	}
 	
 	/**
@@ -188,6 +325,9 @@ public final class LexerBuilder implements Serializable {
 	}
 	
 	/**
+	 * Expanded left-recursively (<code>X -&gt; X symbol | </code>),
+	 * so that the parser stack doesn't grow with the number of repetitions.
+	 * 
 	 * @author codistmonk (creation 2014-08-25)
 	 */
 	public static final class ZeroOrMore implements LexerBuilder.Regular {
@@ -207,7 +347,7 @@ public final class LexerBuilder implements Serializable {
 			final Object result = lexerBuilder.newToken();
 			final Object symbol = lexerBuilder.symbol(this.getSymbol());
 			
-			lexerBuilder.define(result, symbol, result);
+			lexerBuilder.define(result, result, symbol);
 			lexerBuilder.define(result);
 			
 			return result;
@@ -221,6 +361,8 @@ public final class LexerBuilder implements Serializable {
 	}
 	
 	/**
+	 * Expanded left-recursively, like {@link ZeroOrMore}.
+	 * 
 	 * @author codistmonk (creation 2014-08-25)
 	 */
 	public static final class OneOrMore implements LexerBuilder.Regular {
@@ -240,7 +382,7 @@ public final class LexerBuilder implements Serializable {
 			final Object result = lexerBuilder.newToken();
 			final Object symbol = lexerBuilder.symbol(this.getSymbol());
 			
-			lexerBuilder.define(result, symbol, result);
+			lexerBuilder.define(result, result, symbol);
 			lexerBuilder.define(result, symbol);
 			
 			return result;
@@ -268,11 +410,35 @@ public final class LexerBuilder implements Serializable {
 			return this.symbols;
 		}
 		
+		/**
+		 * Characters and character classes are merged into a single {@link CharClass}.
+		 */
 		@Override
 		public final Object updateRules(final LexerBuilder lexerBuilder) {
-			final Object result = lexerBuilder.newToken();
+			CharClass characterClass = null;
+			final List<Object> others = new ArrayList<>();
 			
 			for (final Object symbol : this.getSymbols()) {
+				final CharClass symbolClass = toCharClass(symbol);
+				
+				if (symbolClass == null) {
+					others.add(symbol);
+				} else {
+					characterClass = characterClass == null ? symbolClass : characterClass.union(symbolClass);
+				}
+			}
+			
+			if (characterClass != null && others.isEmpty()) {
+				return lexerBuilder.symbol(characterClass);
+			}
+			
+			final Object result = lexerBuilder.newToken();
+			
+			if (characterClass != null) {
+				lexerBuilder.define(result, lexerBuilder.symbol(characterClass));
+			}
+			
+			for (final Object symbol : others) {
 				lexerBuilder.define(result, lexerBuilder.symbol(symbol));
 			}
 			
@@ -284,6 +450,27 @@ public final class LexerBuilder implements Serializable {
 		 */
 		private static final long serialVersionUID = 7575577428161932486L;
 		
+		/**
+		 * @return <code>null</code> if one of <code>symbols</code> isn't a character, a {@link CharClass}
+		 * or a union of those
+		 */
+		public static final CharClass toCharClass(final Object... symbols) {
+			CharClass result = CharClass.of();
+			
+			for (final Object symbol : symbols) {
+				final CharClass symbolClass = symbol instanceof Union ?
+						toCharClass(((Union) symbol).getSymbols()) : CharClass.toCharClass(symbol);
+				
+				if (symbolClass == null) {
+					return null;
+				}
+				
+				result = result.union(symbolClass);
+			}
+			
+			return result;
+		}
+		
 	}
 	
 	/**
@@ -318,20 +505,13 @@ public final class LexerBuilder implements Serializable {
 	}
 	
 	/**
+	 * {@link #execute(Rule, Object[])} returns the generated {@link Token};
+	 * implementations must be stateless so that a lexer can be shared between threads.
+	 * 
 	 * @author codistmonk (creation 2014-08-25)
 	 */
 	public static abstract class TokenGenerator implements RuleAction {
 		
-		private final Token[] tokenBox;
-		
-		protected TokenGenerator(final Token[] tokenBox) {
-			this.tokenBox = tokenBox;
-		}
-		
-		public final Token[] getTokenBox() {
-			return this.tokenBox;
-		}
-		
 		/**
 		 * {@value}.
 		 */
@@ -340,19 +520,21 @@ public final class LexerBuilder implements Serializable {
 	}
 	
 	/**
+	 * The generated token keeps the {@link Text} of its data, whose string is only created by
+	 * {@link Token#getDatum()}.
+	 * 
 	 * @author codistmonk (creation 2014-08-25)
 	 */
 	public static final class StringTokenGenerator extends LexerBuilder.TokenGenerator {
 		
-		public StringTokenGenerator(final Token[] tokenBox) {
-			super(tokenBox);
+		@Override
+		public final Object execute(final Rule rule, final Object[] data) {
+			return new Token(rule.getNonterminal(), Text.concat(data));
 		}
 		
 		@Override
-		public final Object execute(final Rule rule, final Object[] data) {
-			this.getTokenBox()[0] = new Token(rule.getNonterminal(), join("", data));
-			
-			return null;
+		public final boolean isKeepingData() {
+			return false;
 		}
 		
 		/**
@@ -360,6 +542,8 @@ public final class LexerBuilder implements Serializable {
 		 */
 		private static final long serialVersionUID = 6122957581557730089L;
 		
+		public static final LexerBuilder.StringTokenGenerator INSTANCE = new StringTokenGenerator();
+		
 	}
 	
 	/**
@@ -367,9 +551,17 @@ public final class LexerBuilder implements Serializable {
 	 */
 	public static final class StringCollector implements RuleAction {
 		
+		/**
+		 * @return A single character as is, otherwise a {@link Text} concatenating <code>data</code>
+		 */
 		@Override
 		public final Object execute(final Rule rule, final Object[] data) {
-			return join("", data);
+			return data.length == 1 && data[0] instanceof Character ? data[0] : Text.concat(data);
+		}
+		
+		@Override
+		public final boolean isKeepingData() {
+			return false;
 		}
 		
 		/**
@@ -36,11 +36,14 @@ public final class ParserBuilder implements Serializable {
 	
 	private final List<Priority> priorities;
 	
+	private final LRTable.Precedences precedences;
+	
 	public ParserBuilder(final Lexer lexer) {
 		this.grammar = new Grammar();
 		this.lexerTokens = new HashSet<>();
 		this.exampleTrees = new ArrayList<>();
 		this.priorities = new ArrayList<>();
+		this.precedences = new LRTable.Precedences();
 		
 		if (lexer != null) {
 			for (final Rule rule : lexer.getParser().getGrammar().getRules()) {
@@ -51,6 +54,14 @@ public final class ParserBuilder implements Serializable {
 		}
 	}
 	
+	public ParserBuilder(final DFALexer lexer) {
+		this((Lexer) null);
+		
+		if (lexer != null) {
+			this.lexerTokens.addAll(lexer.getTokens());
+		}
+	}
+	
 	public final Grammar getGrammar() {
 		return this.grammar;
 	}
@@ -63,6 +74,22 @@ public final class ParserBuilder implements Serializable {
 		this.priorities.add(new Priority(priority, preferredAssociativity, this.tokenify(Arrays.asList(symbols))));
 	}
 	
+	/**
+	 * Yacc-style precedence declaration (<code>%left</code>, <code>%right</code> or <code>%nonassoc</code>),
+	 * applied while the table is built, before {@link #resolveConflictWith(Object...)} and
+	 * {@link #setPriority(int, Associativity, Object...)}; see {@link LRTable.Precedences}.
+	 */
+	public final void setPrecedence(final int level, final Associativity associativity, final Object... terminals) {
+		this.precedences.declare(level, associativity, this.tokenify(Arrays.asList(terminals)).toArray());
+	}
+	
+	/**
+	 * Gives <code>rule</code> the precedence of <code>terminal</code> (like yacc's <code>%prec</code>).
+	 */
+	public final void setPrecedence(final Rule rule, final Object terminal) {
+		this.precedences.setRulePrecedence(rule, this.tokenify(Arrays.asList(terminal)).get(0));
+	}
+	
 	public final Rule define(final Object nonterminal, final Object... development) {
 		final int n = development.length;
 		final Object[] actualDevelopment = new Object[n];
@@ -95,7 +122,7 @@ public final class ParserBuilder implements Serializable {
 	}
 	
 	public final LRParser newParser(final ClosureTable table) {
-		final LRParser result = new LRParser(new LRTable(table));
+		final LRParser result = new LRParser(new LRTable(table, this.precedences));
 		
 		this.resolveConflicts(result);
 		
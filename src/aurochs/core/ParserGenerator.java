@@ -0,0 +1,467 @@
+package aurochs.core;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import aurochs.core.Grammar.Rule;
+import aurochs.core.Lexer.Token;
+import multij.tools.IllegalInstantiationException;
+
+/**
+ * Generates the Java source of an abstract parser class whose tables are static constants.
+ * <br>The generated class only depends on <code>java.util</code>: it doesn't load the grammar or this library.
+ * <br>Its type parameter is the type of the datum of the initial nonterminal, returned by <code>parse(tokens)</code>.
+ * <br>Subclasses implement <code>reduce(ruleIndex, data)</code>, and may override <code>getSymbol(token)</code>
+ * to map input tokens to grammar symbols; characters that aren't terminals are looked up in the terminal
+ * {@link CharClass}es, which must be disjoint.
+ *
+ * @author codistmonk (creation 2026-10-17)
+ */
+public final class ParserGenerator {
+	
+	private ParserGenerator() {
+		throw new IllegalInstantiationException();
+	}
+	
+	/**
+	 * @param commandLineArguments
+	 * <br>Must be: definitionClassName generatedClassName outputDirectory
+	 * <br>The definition class must implement {@link Definition} and have a public no-arg constructor
+	 */
+	public static final void main(final String... commandLineArguments) throws Exception {
+		if (commandLineArguments.length != 3) {
+			throw new IllegalArgumentException(
+					"Usage: " + ParserGenerator.class.getName() + " definitionClass generatedClass outputDirectory");
+		}
+		
+		final Definition definition = (Definition) Class.forName(
+				commandLineArguments[0]).getConstructor().newInstance();
+		final String className = commandLineArguments[1];
+		final File file = new File(commandLineArguments[2], className.replace('.', File.separatorChar) + ".java");
+		final String source = generate(definition.newParser().getTable(), className);
+		
+		file.getAbsoluteFile().getParentFile().mkdirs();
+		
+		Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * @param className
+	 * <br>Fully qualified
+	 */
+	public static final String generate(final LRTable table, final String className) {
+		final CompiledLRTable compiledTable = table.getCompiledTable();
+		final List<Rule> rules = table.getGrammar().getRules();
+		final int symbolCount = compiledTable.getSymbolCount();
+		final int stateCount = compiledTable.getStateCount();
+		final int ruleCount = rules.size();
+		final int lastDot = className.lastIndexOf('.');
+		final String simpleName = className.substring(lastDot + 1);
+		final int[] actions = new int[stateCount * symbolCount];
+		final int[] ruleNonterminalIds = new int[ruleCount];
+		final int[] ruleSizes = new int[ruleCount];
+		final List<int[]> characterRanges = new ArrayList<>();
+		final StringBuilder result = new StringBuilder();
+		
+		for (int stateIndex = 0; stateIndex < stateCount; ++stateIndex) {
+			for (int symbolId = 0; symbolId < symbolCount; ++symbolId) {
+				actions[stateIndex * symbolCount + symbolId] = compiledTable.getAction(stateIndex, symbolId);
+			}
+		}
+		
+		for (int ruleIndex = 0; ruleIndex < ruleCount; ++ruleIndex) {
+			ruleNonterminalIds[ruleIndex] = compiledTable.getRuleNonterminalId(ruleIndex);
+			ruleSizes[ruleIndex] = compiledTable.getRuleSize(ruleIndex);
+		}
+		
+		if (0 <= lastDot) {
+			result.append("package ").append(className.substring(0, lastDot)).append(";\n\n");
+		}
+		
+		result.append("import java.util.Arrays;\n");
+		result.append("import java.util.HashMap;\n");
+		result.append("import java.util.Iterator;\n");
+		result.append("import java.util.Map;\n\n");
+		result.append("/**\n");
+		result.append(" * Generated by ").append(ParserGenerator.class.getName()).append("; do not edit.\n");
+		result.append(" * <br>Rules:\n");
+		
+		for (final Rule rule : rules) {
+			result.append(" * <br>").append(rule.getIndex()).append(": ").append(comment(rule.toString())).append('\n');
+		}
+		
+		result.append(" *\n * @param <T> The type of the datum of the initial nonterminal\n");
+		result.append(" */\n");
+		result.append("public abstract class ").append(simpleName).append("<T> {\n\t\n");
+		result.append("\t/**\n\t * @return The datum of the nonterminal of rule <code>ruleIndex</code>\n\t */\n");
+		result.append("\tprotected abstract Object reduce(int ruleIndex, Object[] data);\n\t\n");
+		result.append("\t/**\n\t * @return <code>token</code> by default\n\t */\n");
+		result.append("\tprotected Object getSymbol(final Object token) {\n\t\treturn token;\n\t}\n\t\n");
+		result.append(PARSE_METHOD);
+		result.append("\tpublic static final int SYMBOL_COUNT = ").append(symbolCount).append(";\n\t\n");
+		result.append("\tpublic static final int STATE_COUNT = ").append(stateCount).append(";\n\t\n");
+		result.append("\tpublic static final int RULE_COUNT = ").append(ruleCount).append(";\n\t\n");
+		result.append("\tprivate static final Object[] SYMBOLS = {");
+		
+		for (int symbolId = 0; symbolId < symbolCount; ++symbolId) {
+			final Object symbol = compiledTable.getSymbol(symbolId);
+			
+			if (symbol instanceof CharClass) {
+				final CharClass characterClass = (CharClass) symbol;
+				
+				for (int i = 0; i < characterClass.getRangeCount(); ++i) {
+					characterRanges.add(new int[] { characterClass.getFirst(i), characterClass.getLast(i), symbolId });
+				}
+			}
+			
+			result.append(symbolId % 8 == 0 ? "\n\t\t\t" : " ").append(
+					symbol instanceof CharClass ? "null" : literal(symbol)).append(',');
+		}
+		
+		characterRanges.sort(Comparator.comparingInt(range -> range[0]));
+		
+		result.append("\n\t};\n\t\n");
+		result.append("\tprivate static final Map<Object, Integer> SYMBOL_IDS = new HashMap<>();\n\t\n");
+		appendIntArray(result, "ACTIONS", actions);
+		appendIntArray(result, "RULE_NONTERMINAL_IDS", ruleNonterminalIds);
+		appendIntArray(result, "RULE_SIZES", ruleSizes);
+		appendIntArray(result, "CHARACTER_RANGES",
+				characterRanges.stream().flatMapToInt(range -> Arrays.stream(range)).toArray());
+		result.append(STATIC_PART);
+		result.append("}\n");
+		
+		return result.toString();
+	}
+	
+	/**
+	 * Encodes <code>values</code> as (number of skipped zeroes, value) pairs of variable-length integers
+	 * written 15 bits per char, the high bit of each char meaning "more chars follow".
+	 */
+	public static final String encode(final int[] values) {
+		final StringBuilder result = new StringBuilder();
+		int zeroes = 0;
+		
+		for (final int value : values) {
+			if (value == 0) {
+				++zeroes;
+			} else {
+				appendVarInt(result, zeroes);
+				appendVarInt(result, value);
+				zeroes = 0;
+			}
+		}
+		
+		return result.toString();
+	}
+	
+	/**
+	 * Inverse of {@link #encode(int[])}; also emitted in the generated classes.
+	 */
+	public static final int[] decode(final int length, final String... chunks) {
+		final int[] result = new int[length];
+		int index = 0;
+		int value = 0;
+		int shift = 0;
+		boolean skip = true;
+		
+		for (final String chunk : chunks) {
+			final int n = chunk.length();
+			
+			for (int i = 0; i < n; ++i) {
+				final char c = chunk.charAt(i);
+				
+				value |= (c & 0x7FFF) << shift;
+				
+				if ((c & 0x8000) != 0) {
+					shift += 15;
+				} else {
+					if (skip) {
+						index += value;
+					} else {
+						result[index++] = value;
+					}
+					
+					skip = !skip;
+					value = 0;
+					shift = 0;
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @return A Java expression for <code>symbol</code>; {@link Grammar.Special#END} becomes <code>null</code>
+	 * and tokens are replaced with their nonterminal
+	 * @throws IllegalArgumentException If <code>symbol</code> isn't a character, string, integer or token
+	 * ({@link CharClass}es are generated as range tables instead)
+	 */
+	public static final String literal(final Object symbol) {
+		if (symbol == Grammar.Special.END) {
+			return "null";
+		}
+		
+		if (symbol instanceof Token) {
+			return literal(((Token) symbol).getNonterminal());
+		}
+		
+		if (symbol instanceof Integer) {
+			return symbol.toString();
+		}
+		
+		if (symbol instanceof Character) {
+			final char c = (Character) symbol;
+			
+			if (c == '\'' || c == '\\') {
+				return "'\\" + c + "'";
+			}
+			
+			return ' ' <= c && c <= '~' ? "'" + c + "'" : String.format("(char) 0x%04X", (int) c);
+		}
+		
+		if (symbol instanceof String) {
+			return stringLiteral((String) symbol);
+		}
+		
+		throw new IllegalArgumentException("Unsupported symbol: " + symbol);
+	}
+	
+	public static final String stringLiteral(final String string) {
+		final StringBuilder result = new StringBuilder("\"");
+		final int n = string.length();
+		
+		for (int i = 0; i < n; ++i) {
+			final char c = string.charAt(i);
+			
+			if (c == '"' || c == '\\') {
+				result.append('\\').append(c);
+			} else if (' ' <= c && c <= '~') {
+				result.append(c);
+			} else if (c < 0x100) {
+				// Unicode escapes are translated before parsing, so they can't be used for line terminators
+				result.append(String.format("\\%03o", (int) c));
+			} else {
+				result.append(String.format("\\u%04X", (int) c));
+			}
+		}
+		
+		return result.append('"').toString();
+	}
+	
+	/**
+	 * {@value}.
+	 */
+	public static final int CHUNK_SIZE = 8192;
+	
+	private static final void appendIntArray(final StringBuilder result, final String name, final int[] values) {
+		final String encoded = encode(values);
+		final int n = encoded.length();
+		
+		result.append("\tprivate static final int[] ").append(name).append(" = decode(").append(values.length);
+		
+		for (int i = 0; i < n; i += CHUNK_SIZE) {
+			result.append(",\n\t\t\t").append(stringLiteral(encoded.substring(i, Math.min(n, i + CHUNK_SIZE))));
+		}
+		
+		result.append(");\n\t\n");
+	}
+	
+	private static final void appendVarInt(final StringBuilder result, final int value) {
+		int remaining = value;
+		
+		while ((remaining & ~0x7FFF) != 0) {
+			result.append((char) ((remaining & 0x7FFF) | 0x8000));
+			remaining >>>= 15;
+		}
+		
+		result.append((char) remaining);
+	}
+	
+	private static final String comment(final String text) {
+		final StringBuilder result = new StringBuilder();
+		final int n = text.length();
+		
+		for (int i = 0; i < n; ++i) {
+			final char c = text.charAt(i);
+			
+			if (c == '\\') {
+				result.append("&#92;");
+			} else if (c == '/' && 0 < i && text.charAt(i - 1) == '*') {
+				result.append("&#47;");
+			} else if (c == '<') {
+				result.append("&lt;");
+			} else if (c == '>') {
+				result.append("&gt;");
+			} else if (c == '&') {
+				result.append("&amp;");
+			} else {
+				result.append(' ' <= c && c <= '~' ? c : '?');
+			}
+		}
+		
+		return result.toString();
+	}
+	
+	private static final String PARSE_METHOD = String.join("\n",
+			"\t/**",
+			"\t * @return The datum of the initial nonterminal",
+			"\t * @throws IllegalArgumentException If <code>tokens</code> don't form a sentence of the grammar",
+			"\t */",
+			"\t@SuppressWarnings(\"unchecked\")",
+			"\tpublic final T parse(final Iterator<?> tokens) {",
+			"\t\tint[] states = new int[16];",
+			"\t\tObject[] data = new Object[16];",
+			"\t\tint size = 1;",
+			"\t\tint index = 0;",
+			"\t\tObject token = tokens.hasNext() ? tokens.next() : null;",
+			"\t\tint symbolId = token == null ? 0 : getSymbolId(this.getSymbol(token));",
+			"\t\t",
+			"\t\twhile (0 <= symbolId) {",
+			"\t\t\tfinal int action = ACTIONS[states[size - 1] * SYMBOL_COUNT + symbolId];",
+			"\t\t\t",
+			"\t\t\tif ((action & 3) == 1) {",
+			"\t\t\t\tif (size == states.length) {",
+			"\t\t\t\t\tstates = Arrays.copyOf(states, 2 * size);",
+			"\t\t\t\t\tdata = Arrays.copyOf(data, 2 * size);",
+			"\t\t\t\t}",
+			"\t\t\t\t",
+			"\t\t\t\tstates[size] = action >>> 2;",
+			"\t\t\t\tdata[size] = token;",
+			"\t\t\t\t++size;",
+			"\t\t\t\t++index;",
+			"\t\t\t\ttoken = tokens.hasNext() ? tokens.next() : null;",
+			"\t\t\t\tsymbolId = token == null ? 0 : getSymbolId(this.getSymbol(token));",
+			"\t\t\t} else if ((action & 3) == 2) {",
+			"\t\t\t\tfinal int ruleIndex = action >>> 2;",
+			"\t\t\t\tfinal int ruleSize = RULE_SIZES[ruleIndex];",
+			"\t\t\t\tfinal Object newDatum = this.reduce(ruleIndex, Arrays.copyOfRange(data, size - ruleSize, size));",
+			"\t\t\t\t",
+			"\t\t\t\tArrays.fill(data, size - ruleSize, size, null);",
+			"\t\t\t\tsize -= ruleSize;",
+			"\t\t\t\t",
+			"\t\t\t\tfinal int next = ACTIONS[states[size - 1] * SYMBOL_COUNT + RULE_NONTERMINAL_IDS[ruleIndex]];",
+			"\t\t\t\t",
+			"\t\t\t\tif (next == 3) {",
+			"\t\t\t\t\tif (symbolId == 0) {",
+			"\t\t\t\t\t\treturn (T) newDatum;",
+			"\t\t\t\t\t}",
+			"\t\t\t\t\t",
+			"\t\t\t\t\tbreak;",
+			"\t\t\t\t}",
+			"\t\t\t\t",
+			"\t\t\t\tif (size == states.length) {",
+			"\t\t\t\t\tstates = Arrays.copyOf(states, 2 * size);",
+			"\t\t\t\t\tdata = Arrays.copyOf(data, 2 * size);",
+			"\t\t\t\t}",
+			"\t\t\t\t",
+			"\t\t\t\tstates[size] = next >>> 2;",
+			"\t\t\t\tdata[size] = newDatum;",
+			"\t\t\t\t++size;",
+			"\t\t\t} else {",
+			"\t\t\t\tbreak;",
+			"\t\t\t}",
+			"\t\t}",
+			"\t\t",
+			"\t\tthrow new IllegalArgumentException(\"Unexpected \"",
+			"\t\t\t\t+ (token == null ? \"end of input\" : \"token \" + index + \": \" + token));",
+			"\t}",
+			"\t",
+			"");
+	
+	private static final String STATIC_PART = String.join("\n",
+			"\tstatic {",
+			"\t\tfor (int i = 1; i < SYMBOLS.length; ++i) {",
+			"\t\t\tif (SYMBOLS[i] != null) {",
+			"\t\t\t\tSYMBOL_IDS.putIfAbsent(SYMBOLS[i], i);",
+			"\t\t\t}",
+			"\t\t}",
+			"\t}",
+			"\t",
+			"\t/**",
+			"\t * @return <code>-1</code> if <code>symbol</code> isn't in the grammar",
+			"\t */",
+			"\tpublic static final int getSymbolId(final Object symbol) {",
+			"\t\tfinal Integer result = SYMBOL_IDS.get(symbol);",
+			"\t\t",
+			"\t\tif (result != null) {",
+			"\t\t\treturn result;",
+			"\t\t}",
+			"\t\t",
+			"\t\treturn symbol instanceof Character ? getCharacterClassId((Character) symbol) : -1;",
+			"\t}",
+			"\t",
+			"\t/**",
+			"\t * @return <code>-1</code> if <code>c</code> isn't in a character class of the grammar",
+			"\t */",
+			"\tpublic static final int getCharacterClassId(final char c) {",
+			"\t\tint low = 0;",
+			"\t\tint high = CHARACTER_RANGES.length / 3 - 1;",
+			"\t\t",
+			"\t\twhile (low <= high) {",
+			"\t\t\tfinal int middle = (low + high) >>> 1;",
+			"\t\t\t",
+			"\t\t\tif (c < CHARACTER_RANGES[3 * middle]) {",
+			"\t\t\t\thigh = middle - 1;",
+			"\t\t\t} else if (CHARACTER_RANGES[3 * middle + 1] < c) {",
+			"\t\t\t\tlow = middle + 1;",
+			"\t\t\t} else {",
+			"\t\t\t\treturn CHARACTER_RANGES[3 * middle + 2];",
+			"\t\t\t}",
+			"\t\t}",
+			"\t\t",
+			"\t\treturn -1;",
+			"\t}",
+			"\t",
+			"\tprivate static final int[] decode(final int length, final String... chunks) {",
+			"\t\tfinal int[] result = new int[length];",
+			"\t\tint index = 0;",
+			"\t\tint value = 0;",
+			"\t\tint shift = 0;",
+			"\t\tboolean skip = true;",
+			"\t\t",
+			"\t\tfor (final String chunk : chunks) {",
+			"\t\t\tfinal int n = chunk.length();",
+			"\t\t\t",
+			"\t\t\tfor (int i = 0; i < n; ++i) {",
+			"\t\t\t\tfinal char c = chunk.charAt(i);",
+			"\t\t\t\t",
+			"\t\t\t\tvalue |= (c & 0x7FFF) << shift;",
+			"\t\t\t\t",
+			"\t\t\t\tif ((c & 0x8000) != 0) {",
+			"\t\t\t\t\tshift += 15;",
+			"\t\t\t\t} else {",
+			"\t\t\t\t\tif (skip) {",
+			"\t\t\t\t\t\tindex += value;",
+			"\t\t\t\t\t} else {",
+			"\t\t\t\t\t\tresult[index++] = value;",
+			"\t\t\t\t\t}",
+			"\t\t\t\t\t",
+			"\t\t\t\t\tskip = !skip;",
+			"\t\t\t\t\tvalue = 0;",
+			"\t\t\t\t\tshift = 0;",
+			"\t\t\t\t}",
+			"\t\t\t}",
+			"\t\t}",
+			"\t\t",
+			"\t\treturn result;",
+			"\t}",
+			"\t",
+			"");
+	
+	/**
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public static abstract interface Definition extends Serializable {
+		
+		public abstract LRParser newParser();
+		
+	}
+	
+}
@@ -0,0 +1,359 @@
+package aurochs.core;
+
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+
+import aurochs.core.Grammar.Special;
+import aurochs.core.LRParser.Parsing;
+import aurochs.core.LRParser.ParsingStatus;
+import aurochs.core.Lexer.Token;
+
+/**
+ * Parses input pushed piece by piece as it becomes available, instead of pulling it from a {@link TokenSource};
+ * each call advances the parser as far as the input received so far allows and returns without blocking.
+ * <br>Characters are pushed into the lexer as they are received, so a token (or skipped text) spanning several calls
+ * to {@link #feed(CharSequence)} is lexed only once; it is shifted when the character following it has been received.
+ * <br>Not thread-safe: calls must not overlap, but they can come from different threads.
+ *
+ * @author codistmonk (creation 2026-10-17)
+ */
+public final class PushParser implements Serializable {
+	
+	private final LRParser parser;
+	
+	private final Lexer lexer;
+	
+	private final Parsing parsing;
+	
+	private final Parsing lexing;
+	
+	private Token generatedToken;
+	
+	private long offset;
+	
+	private long tokenStart;
+	
+	private long pendingOffset;
+	
+	private ParsingStatus status;
+	
+	public PushParser(final LRParser parser) {
+		this(parser, null);
+	}
+	
+	/**
+	 * @param lexer
+	 * <br>Can be <code>null</code> to parse characters directly
+	 */
+	public PushParser(final LRParser parser, final Lexer lexer) {
+		this.parser = parser;
+		this.lexer = lexer;
+		this.parsing = parser.new Parsing(null);
+		this.lexing = lexer == null ? null : lexer.getParser().new Parsing(null).setReductionListener(
+				(rule, datum) -> {
+					if (datum instanceof Token) {
+						this.generatedToken = (Token) datum;
+					}
+				});
+		this.status = ParsingStatus.SHIFTED;
+	}
+	
+	public final LRParser getParser() {
+		return this.parser;
+	}
+	
+	public final Lexer getLexer() {
+		return this.lexer;
+	}
+	
+	/**
+	 * @return {@link ParsingStatus#SHIFTED} while more input is expected, then {@link ParsingStatus#DONE}
+	 * or {@link ParsingStatus#ERROR}
+	 */
+	public final ParsingStatus getStatus() {
+		return this.status;
+	}
+	
+	public final boolean isDone() {
+		return this.getStatus().isDone();
+	}
+	
+	public final boolean isSuccess() {
+		return ParsingStatus.DONE == this.getStatus();
+	}
+	
+	/**
+	 * @return The datum of the input if it is accepted, or <code>null</code>
+	 */
+	public final Object getDatum() {
+		return this.isSuccess() ? this.parsing.getDatum() : null;
+	}
+	
+	/**
+	 * @return The offset of the first received character that isn't part of a shifted token yet
+	 */
+	public final long getPendingOffset() {
+		return this.pendingOffset;
+	}
+	
+	/**
+	 * Feeds a token directly to the parser; with a lexer, no characters must be pending.
+	 *
+	 * @return <code>false</code> if the input is rejected
+	 */
+	public final boolean feedToken(final Object token) {
+		if (this.tokenStart < this.offset) {
+			throw new IllegalStateException();
+		}
+		
+		return this.shift(token);
+	}
+	
+	/**
+	 * @return <code>false</code> if the input is rejected
+	 */
+	public final boolean feed(final CharSequence characters) {
+		if (this.getLexer() == null) {
+			final int n = characters.length();
+			
+			for (int i = 0; i < n && this.shift(characters.charAt(i)); ++i) {
+				// NOP
+			}
+			
+			this.pendingOffset += n;
+		} else {
+			final int n = characters.length();
+			
+			for (int i = 0; i < n && this.lex(characters.charAt(i)); ++i) {
+				// NOP
+			}
+		}
+		
+		return ParsingStatus.ERROR != this.getStatus();
+	}
+	
+	/**
+	 * @return <code>true</code> if the input is accepted
+	 */
+	public final boolean endOfInput() {
+		if (this.tokenStart < this.offset) {
+			this.lex(Special.END);
+		}
+		
+		this.shift(Special.END);
+		
+		return this.isSuccess();
+	}
+	
+	private final boolean shift(final Object token) {
+		if (ParsingStatus.ERROR != this.status) {
+			this.status = this.parsing.feed(token);
+		}
+		
+		return ParsingStatus.ERROR != this.status;
+	}
+	
+	/**
+	 * Pushes a character into the lexer; if it can't extend the current token,
+	 * that token ends before it and the character starts the next one.
+	 *
+	 * @param character
+	 * <br>A {@link Character}, or {@link Special#END}
+	 * @return <code>false</code> if the input is rejected
+	 */
+	private final boolean lex(final Object character) {
+		if (ParsingStatus.ERROR == this.status) {
+			return false;
+		}
+		
+		ParsingStatus lexingStatus = this.lexing.feed(character);
+		
+		if (ParsingStatus.ERROR == lexingStatus && character != Special.END && this.tokenStart < this.offset) {
+			lexingStatus = this.lexing.feed(Special.END);
+			
+			if (ParsingStatus.DONE == lexingStatus) {
+				if (!this.endToken()) {
+					return false;
+				}
+				
+				lexingStatus = this.lexing.feed(character);
+			}
+		}
+		
+		switch (lexingStatus) {
+		case SHIFTED:
+			++this.offset;
+			
+			return true;
+		case DONE:
+			return this.endToken();
+		default:
+			this.status = ParsingStatus.ERROR;
+			
+			return false;
+		}
+	}
+	
+	/**
+	 * Shifts the token generated by the lexer (unless it skipped the text) and restarts the lexer.
+	 *
+	 * @return <code>false</code> if the input is rejected
+	 */
+	private final boolean endToken() {
+		final Token token = this.generatedToken;
+		
+		this.generatedToken = null;
+		this.lexing.reset(null);
+		
+		if (token != null) {
+			token.setSpan(this.tokenStart, this.offset);
+			
+			if (!this.shift(token)) {
+				return false;
+			}
+			
+			this.pendingOffset = this.offset;
+		}
+		
+		this.tokenStart = this.offset;
+		
+		return true;
+	}
+	
+	/**
+	 * {@value}.
+	 */
+	private static final long serialVersionUID = -6061797839006829862L;
+	
+	/**
+	 * Feeds a push parser from a reactive stream, requesting new items only after the previous ones have been parsed;
+	 * the items are passed to the parser by a {@link Feeder}, such as <code>PushParser::feed</code> for text
+	 * or <code>PushParser::feedToken</code> for tokens.
+	 * <br>It has the methods of <code>java.util.concurrent.Flow.Subscriber</code>, to which it can be bridged with
+	 * <code>onSubscribe(subscription::request, subscription::cancel)</code>.
+	 * <br>Its methods don't throw: a failure cancels the subscription and completes the result exceptionally.
+	 *
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public static final class Subscriber<T> {
+		
+		private final PushParser parser;
+		
+		private final Feeder<? super T> feeder;
+		
+		private final long prefetch;
+		
+		private final CompletableFuture<PushParser> result;
+		
+		private LongConsumer request;
+		
+		private Runnable cancel;
+		
+		private long remaining;
+		
+		public Subscriber(final PushParser parser, final Feeder<? super T> feeder) {
+			this(parser, feeder, DEFAULT_PREFETCH);
+		}
+		
+		/**
+		 * @param prefetch
+		 * <br>Range: <code>[1 .. Long.MAX_VALUE]</code>
+		 */
+		public Subscriber(final PushParser parser, final Feeder<? super T> feeder, final long prefetch) {
+			if (prefetch < 1L) {
+				throw new IllegalArgumentException();
+			}
+			
+			this.parser = parser;
+			this.feeder = feeder;
+			this.prefetch = prefetch;
+			this.result = new CompletableFuture<>();
+		}
+		
+		public final PushParser getParser() {
+			return this.parser;
+		}
+		
+		/**
+		 * @return Completed with the parser when the input is accepted or rejected,
+		 * or exceptionally with the error of the stream or of the parsing
+		 */
+		public final CompletableFuture<PushParser> getResult() {
+			return this.result;
+		}
+		
+		public final void onSubscribe(final LongConsumer request, final Runnable cancel) {
+			if (this.request != null) {
+				cancel.run();
+				
+				return;
+			}
+			
+			this.request = request;
+			this.cancel = cancel;
+			this.remaining = this.prefetch;
+			
+			request.accept(this.prefetch);
+		}
+		
+		public final void onNext(final T item) {
+			if (this.result.isDone()) {
+				return;
+			}
+			
+			if (this.request == null) {
+				this.result.completeExceptionally(new IllegalStateException());
+				
+				return;
+			}
+			
+			try {
+				if (!this.feeder.feed(this.getParser(), item)) {
+					this.cancel.run();
+					this.result.complete(this.getParser());
+				} else if (--this.remaining == 0L) {
+					this.remaining = this.prefetch;
+					this.request.accept(this.prefetch);
+				}
+			} catch (final RuntimeException exception) {
+				this.cancel.run();
+				this.result.completeExceptionally(exception);
+			}
+		}
+		
+		public final void onError(final Throwable error) {
+			this.result.completeExceptionally(error);
+		}
+		
+		public final void onComplete() {
+			if (!this.result.isDone()) {
+				try {
+					this.getParser().endOfInput();
+					this.result.complete(this.getParser());
+				} catch (final RuntimeException exception) {
+					this.result.completeExceptionally(exception);
+				}
+			}
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		public static final long DEFAULT_PREFETCH = 16L;
+		
+		/**
+		 * @author codistmonk (creation 2026-10-17)
+		 */
+		public static abstract interface Feeder<T> {
+			
+			/**
+			 * @return <code>false</code> if the input is rejected
+			 */
+			public abstract boolean feed(PushParser parser, T item);
+			
+		}
+		
+	}
+	
+}
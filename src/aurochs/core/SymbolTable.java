@@ -0,0 +1,131 @@
+package aurochs.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import aurochs.core.Grammar.Special;
+
+/**
+ * Gives every symbol of a grammar a small int id, in order of first appearance.
+ * <br>{@link Special#END} always has id 0.
+ * <br>Characters covered by a terminal {@link CharClass} get the id of that class
+ * (see {@link #mapCharacterClasses()}).
+ *
+ * @author codistmonk (creation 2026-10-17)
+ */
+public final class SymbolTable implements Serializable {
+	
+	private final List<Object> symbols;
+	
+	private final Map<Object, Integer> ids;
+	
+	private final BitSet nonterminals;
+	
+	private CharClass.Lookup characterIds;
+	
+	public SymbolTable() {
+		this.symbols = new ArrayList<>();
+		this.ids = new HashMap<>();
+		this.nonterminals = new BitSet();
+		this.characterIds = new CharClass.Lookup();
+		
+		this.intern(Special.END);
+	}
+	
+	public final int intern(final Object symbol) {
+		final int result = this.getId(symbol);
+		
+		if (0 <= result) {
+			return result;
+		}
+		
+		final int id = this.symbols.size();
+		
+		this.symbols.add(symbol);
+		this.ids.put(symbol, id);
+		
+		if (symbol instanceof Character) {
+			this.characterIds.put(CharClass.of((Character) symbol), id);
+		}
+		
+		return id;
+	}
+	
+	/**
+	 * @param symbol
+	 * <br>Not null
+	 * @return <code>-1</code> if <code>symbol</code> hasn't been interned
+	 */
+	public final int getId(final Object symbol) {
+		if (symbol instanceof Character) {
+			return this.characterIds.get((Character) symbol);
+		}
+		
+		final Integer result = this.ids.get(symbol);
+		
+		return result == null ? -1 : result;
+	}
+	
+	/**
+	 * Unboxed form of {@link #getId(Object)} for characters.
+	 * 
+	 * @param character
+	 * <br>A <code>char</code>, or {@link TokenSource#END_OF_CHARACTERS} for {@link Special#END}
+	 * @return <code>-1</code> if <code>character</code> hasn't been interned
+	 */
+	public final int getCharacterId(final int character) {
+		return character < 0 ? 0 : this.characterIds.get((char) character);
+	}
+	
+	/**
+	 * Makes {@link #getId(Object)} map characters to the terminal {@link CharClass} containing them;
+	 * terminal classes must be disjoint and must not contain terminal characters.
+	 */
+	public final void mapCharacterClasses() {
+		final CharClass.Lookup characterIds = new CharClass.Lookup();
+		
+		for (int id = 0; id < this.getSymbolCount(); ++id) {
+			final Object symbol = this.getSymbol(id);
+			
+			if (symbol instanceof CharClass && !this.isNonterminal(id)) {
+				characterIds.put((CharClass) symbol, id);
+			}
+		}
+		
+		for (int id = 0; id < this.getSymbolCount(); ++id) {
+			final Object symbol = this.getSymbol(id);
+			
+			if (symbol instanceof Character) {
+				characterIds.put(CharClass.of((Character) symbol), id);
+			}
+		}
+		
+		this.characterIds = characterIds;
+	}
+	
+	public final Object getSymbol(final int id) {
+		return this.symbols.get(id);
+	}
+	
+	public final int getSymbolCount() {
+		return this.symbols.size();
+	}
+	
+	public final boolean isNonterminal(final int id) {
+		return this.nonterminals.get(id);
+	}
+	
+	final void setNonterminal(final int id) {
+		this.nonterminals.set(id);
+	}
+	
+	/**
+	 * {@value}.
+	 */
+	private static final long serialVersionUID = -4713385281960383402L;
+	
+}
@@ -1,6 +1,18 @@
 package aurochs.core;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -9,32 +21,122 @@ import java.util.NoSuchElementException;
 import aurochs.core.Grammar.Special;
 
 /**
+ * Sources created with {@link #tokens(CharacterInput)} (or the factories based on it)
+ * read their characters directly and also support the unboxed methods {@link #readCharacter()}
+ * and {@link #getCharacter()}.
+ * <br>Readers and channels are streamed through a fixed-size buffer, files can be memory-mapped with {@link #map(Path)}.
+ * 
  * @author codistmonk (creation 2014-08-24)
  */
 public final class TokenSource<T> implements Serializable, Iterable<T> {
 	
 	private final Iterator<T> tokens;
 	
+	private final CharacterInput characters;
+	
 	private Object previous;
 	
 	private Object token;
 	
+	private long position;
+	
+	private long offset;
+	
+	private int character;
+	
+	private boolean backed;
+	
 	public TokenSource(final Iterator<T> tokens) {
 		this.tokens = tokens;
+		this.characters = null;
+		this.offset = -1L;
+	}
+	
+	private TokenSource(final CharacterInput characters) {
+		this.tokens = null;
+		this.characters = characters;
+		this.position = -1L;
+		this.offset = -1L;
+		this.character = END_OF_CHARACTERS;
+	}
+	
+	public final boolean isCharacterSource() {
+		return this.tokens == null;
+	}
+	
+	/**
+	 * @return The index of the current character in a character source (<code>-1</code> before the first read)
+	 */
+	public final long getPosition() {
+		return this.position;
+	}
+	
+	/**
+	 * @return The offset of the current character in the input of a character source
+	 * (<code>-1</code> before the first read or if this isn't a character source);
+	 * see {@link CharacterInput#getOffset()}
+	 */
+	public final long getOffset() {
+		return this.offset;
 	}
 	
 	public final boolean hasNext() {
+		if (this.isCharacterSource()) {
+			return this.characters.hasNext() || this.get() != Special.END || this.backed;
+		}
+		
 		return this.tokens.hasNext() || this.get() != Special.END || this.previous != null;
 	}
 	
 	public final TokenSource<T> back() {
-		this.previous = this.get();
+		if (this.isCharacterSource()) {
+			this.backed = true;
+		} else {
+			this.previous = this.get();
+		}
 		
 		return this;
 	}
 	
+	/**
+	 * Reads the next token, which must be a character or {@link Special#END}, without boxing it
+	 * if this is a character source.
+	 * 
+	 * @return The next character, or {@link #END_OF_CHARACTERS}
+	 */
+	public final int readCharacter() {
+		if (!this.isCharacterSource()) {
+			return toCharacter(this.read().get());
+		}
+		
+		final CharacterInput characters = this.characters;
+		
+		if (this.backed) {
+			this.backed = false;
+		} else if (characters.hasNext()) {
+			++this.position;
+			this.offset = characters.getOffset();
+			this.character = characters.next();
+		} else if (this.character != END_OF_CHARACTERS || this.position < 0L) {
+			++this.position;
+			this.offset = characters.getOffset();
+			this.character = END_OF_CHARACTERS;
+		}
+		
+		return this.character;
+	}
+	
+	/**
+	 * @return The current character, or {@link #END_OF_CHARACTERS}
+	 */
+	public final int getCharacter() {
+		return this.isCharacterSource() ? this.character : toCharacter(this.get());
+	}
+	
 	public final TokenSource<T> read() {
-		if (this.previous != null) {
+		if (this.isCharacterSource()) {
+			this.readCharacter();
+		} else if (this.previous != null) {
 			this.token = this.previous;
 			this.previous = null;
 		} else {
@@ -46,6 +148,14 @@ public final class TokenSource<T> implements Serializable, Iterable<T> {
 	
 	@SuppressWarnings("unchecked")
 	public final T get() {
+		if (this.isCharacterSource()) {
+			if (this.position < 0) {
+				return null;
+			}
+			
+			return (T) (this.character < 0 ? Special.END : Character.valueOf((char) this.character));
+		}
+		
 		return (T) this.token;
 	}
 	
@@ -87,6 +197,24 @@ public final class TokenSource<T> implements Serializable, Iterable<T> {
 	 */
 	private static final long serialVersionUID = 5110131920139722902L;
 	
+	/**
+	 * {@value}.
+	 */
+	public static final int END_OF_CHARACTERS = -1;
+	
+	/**
+	 * {@value}.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+	
+	/**
+	 * @return {@link #END_OF_CHARACTERS} if <code>token</code> is {@link Special#END}
+	 * @throws ClassCastException If <code>token</code> isn't a character
+	 */
+	public static final int toCharacter(final Object token) {
+		return token == Special.END ? END_OF_CHARACTERS : (Character) token;
+	}
+	
 	public static final List<Character> characters(final CharSequence sequence) {
 		final int n = sequence.length();
 		final List<Character> result = new ArrayList<>(n);
@@ -98,8 +226,73 @@ public final class TokenSource<T> implements Serializable, Iterable<T> {
 		return result;
 	}
 	
+	public static final TokenSource<Character> tokens(final CharacterInput characters) {
+		return new TokenSource<>(characters);
+	}
+	
 	public static final TokenSource<Character> tokens(final CharSequence sequence) {
-		return tokens(characters(sequence));
+		return tokens(sequence, 0);
+	}
+	
+	/**
+	 * Offsets are indices in <code>sequence</code>.
+	 */
+	public static final TokenSource<Character> tokens(final CharSequence sequence, final int start) {
+		return tokens(new SequenceInput(sequence, start));
+	}
+	
+	public static final TokenSource<Character> tokens(final char[] characters) {
+		return tokens(CharBuffer.wrap(characters));
+	}
+	
+	/**
+	 * I/O errors are rethrown as {@link UncheckedIOException}s; <code>reader</code> isn't closed.
+	 * 
+	 * @param bufferSize
+	 * <br>Range: <code>[1 .. Integer.MAX_VALUE]</code>
+	 */
+	public static final TokenSource<Character> tokens(final Reader reader, final int bufferSize) {
+		return tokens(new ReaderInput(reader, bufferSize));
+	}
+	
+	public static final TokenSource<Character> tokens(final Reader reader) {
+		return tokens(reader, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Bytes are decoded incrementally; malformed input is reported as an {@link UncheckedIOException}.
+	 * 
+	 * @param bufferSize
+	 * <br>Range: <code>[1 .. Integer.MAX_VALUE]</code>
+	 */
+	public static final TokenSource<Character> tokens(final ReadableByteChannel channel, final Charset charset,
+			final int bufferSize) {
+		return tokens(Channels.newReader(channel, charset.newDecoder(), bufferSize), bufferSize);
+	}
+	
+	public static final TokenSource<Character> tokens(final ReadableByteChannel channel, final Charset charset) {
+		return tokens(channel, charset, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Maps <code>file</code> into memory and decodes it as UTF-8 (which includes ASCII) on the fly;
+	 * offsets are byte offsets into the file.
+	 * <br>Malformed sequences are decoded as U+FFFD.
+	 */
+	public static final TokenSource<Character> map(final Path file) throws IOException {
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			final ByteBuffer[] regions = new ByteBuffer[(int) ((size + MappedUTF8Input.REGION_SIZE - 1L)
+					>>> MappedUTF8Input.REGION_BITS)];
+			
+			for (int i = 0; i < regions.length; ++i) {
+				final long start = (long) i << MappedUTF8Input.REGION_BITS;
+				
+				regions[i] = channel.map(MapMode.READ_ONLY, start, Math.min(MappedUTF8Input.REGION_SIZE, size - start));
+			}
+			
+			return tokens(new MappedUTF8Input(regions, size));
+		}
 	}
 	
 	public static final <T> TokenSource<T> tokens(final List<T> tokens) {
@@ -120,4 +313,242 @@ public final class TokenSource<T> implements Serializable, Iterable<T> {
 		});
 	}
 	
-}
\ No newline at end of file
+	/**
+	 * Unboxed character stream behind a character {@link TokenSource}.
+	 * 
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	public static abstract class CharacterInput implements Serializable {
+		
+		public abstract boolean hasNext();
+		
+		public abstract char next();
+		
+		/**
+		 * @return The offset of the next character; by default, the number of characters read so far
+		 */
+		public abstract long getOffset();
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = -3301545425330916425L;
+		
+	}
+	
+	/**
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	static final class SequenceInput extends CharacterInput {
+		
+		private final CharSequence sequence;
+		
+		private int index;
+		
+		SequenceInput(final CharSequence sequence, final int start) {
+			this.sequence = sequence;
+			this.index = start;
+		}
+		
+		@Override
+		public final boolean hasNext() {
+			return this.index < this.sequence.length();
+		}
+		
+		@Override
+		public final char next() {
+			return this.sequence.charAt(this.index++);
+		}
+		
+		@Override
+		public final long getOffset() {
+			return this.index;
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = 2919364427512004233L;
+		
+	}
+	
+	/**
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	static final class ReaderInput extends CharacterInput {
+		
+		private final Reader reader;
+		
+		private final char[] buffer;
+		
+		private int bufferIndex;
+		
+		private int bufferLimit;
+		
+		private long bufferOffset;
+		
+		ReaderInput(final Reader reader, final int bufferSize) {
+			this.reader = reader;
+			this.buffer = new char[bufferSize];
+		}
+		
+		@Override
+		public final boolean hasNext() {
+			if (this.bufferIndex < this.bufferLimit) {
+				return true;
+			}
+			
+			if (this.bufferLimit < 0) {
+				return false;
+			}
+			
+			try {
+				int count;
+				
+				do {
+					count = this.reader.read(this.buffer, 0, this.buffer.length);
+				} while (count == 0);
+				
+				this.bufferOffset += this.bufferLimit;
+				this.bufferIndex = 0;
+				this.bufferLimit = count;
+				
+				return 0 < count;
+			} catch (final IOException exception) {
+				throw new UncheckedIOException(exception);
+			}
+		}
+		
+		@Override
+		public final char next() {
+			return this.buffer[this.bufferIndex++];
+		}
+		
+		@Override
+		public final long getOffset() {
+			return this.bufferOffset + this.bufferIndex;
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = 7567306620283484108L;
+		
+	}
+	
+	/**
+	 * @author codistmonk (creation 2026-10-17)
+	 */
+	static final class MappedUTF8Input extends CharacterInput {
+		
+		private final ByteBuffer[] regions;
+		
+		private final long size;
+		
+		private long offset;
+		
+		private int pendingLowSurrogate;
+		
+		MappedUTF8Input(final ByteBuffer[] regions, final long size) {
+			this.regions = regions;
+			this.size = size;
+			this.pendingLowSurrogate = -1;
+		}
+		
+		@Override
+		public final boolean hasNext() {
+			return 0 <= this.pendingLowSurrogate || this.offset < this.size;
+		}
+		
+		@Override
+		public final char next() {
+			if (0 <= this.pendingLowSurrogate) {
+				final char result = (char) this.pendingLowSurrogate;
+				
+				this.pendingLowSurrogate = -1;
+				
+				return result;
+			}
+			
+			final int lead = this.getByte(this.offset);
+			
+			if (0 <= lead) {
+				++this.offset;
+				
+				return (char) lead;
+			}
+			
+			final int length = (lead & 0xE0) == 0xC0 ? 2 : (lead & 0xF0) == 0xE0 ? 3 : (lead & 0xF8) == 0xF0 ? 4 : 0;
+			int codePoint = lead & (0x7F >> length);
+			
+			if (length == 0 || this.size < this.offset + length) {
+				++this.offset;
+				
+				return REPLACEMENT_CHARACTER;
+			}
+			
+			for (int i = 1; i < length; ++i) {
+				final int b = this.getByte(this.offset + i);
+				
+				if ((b & 0xC0) != 0x80) {
+					this.offset += i;
+					
+					return REPLACEMENT_CHARACTER;
+				}
+				
+				codePoint = (codePoint << 6) | (b & 0x3F);
+			}
+			
+			this.offset += length;
+			
+			if (codePoint < MINIMUM_CODE_POINTS[length] || Character.MAX_CODE_POINT < codePoint
+					|| Character.MIN_SURROGATE <= codePoint && codePoint <= Character.MAX_SURROGATE) {
+				return REPLACEMENT_CHARACTER;
+			}
+			
+			if (Character.isBmpCodePoint(codePoint)) {
+				return (char) codePoint;
+			}
+			
+			this.pendingLowSurrogate = Character.lowSurrogate(codePoint);
+			
+			return Character.highSurrogate(codePoint);
+		}
+		
+		/**
+		 * @return The byte offset of the next character (the start of its code point for a low surrogate)
+		 */
+		@Override
+		public final long getOffset() {
+			return 0 <= this.pendingLowSurrogate ? this.offset - 4L : this.offset;
+		}
+		
+		private final int getByte(final long offset) {
+			return this.regions[(int) (offset >>> REGION_BITS)].get((int) (offset & (REGION_SIZE - 1L)));
+		}
+		
+		/**
+		 * {@value}.
+		 */
+		private static final long serialVersionUID = -6129049947938155187L;
+		
+		/**
+		 * {@value}.
+		 */
+		public static final int REGION_BITS = 30;
+		
+		/**
+		 * {@value}.
+		 */
+		public static final long REGION_SIZE = 1L << REGION_BITS;
+		
+		/**
+		 * {@value}.
+		 */
+		public static final char REPLACEMENT_CHARACTER = '\uFFFD';
+		
+		private static final int[] MINIMUM_CODE_POINTS = { 0, 0, 0x80, 0x800, 0x10000 };
+		
+	}
+	
+}
@@ -8,25 +8,58 @@ import static multij.tools.Tools.list;
 import static multij.tools.Tools.set;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.tools.ToolProvider;
 
 import multij.tools.Tools;
 
 import org.junit.Test;
 
+import aurochs.core.BatchParser;
+import aurochs.core.CharClass;
 import aurochs.core.Grammar;
+import aurochs.core.IncrementalLexer;
+import aurochs.core.IncrementalParser;
 import aurochs.core.LALR1ClosureTable;
 import aurochs.core.LRParser;
 import aurochs.core.LRTable;
 import aurochs.core.Lexer;
 import aurochs.core.LexerBuilder;
 import aurochs.core.ParserBuilder;
+import aurochs.core.PushParser;
+import aurochs.core.TokenSource;
 import aurochs.core.Grammar.RuleAction;
 import aurochs.core.LRParser.ConflictResolver;
+import aurochs.core.LRParser.ParsingStatus;
 import aurochs.core.Lexer.Token;
 import aurochs.core.LexerBuilder.Union;
 import aurochs.core.ParserBuilder.Priority.Associativity;
@@ -126,6 +159,263 @@ public final class LALR1Test {
 		assertTrue(parser.parse(tokens("'\\''")));
 	}
 	
+	@Test
+	public final void testParser3() {
+		final Grammar grammar = new Grammar();
+		
+		grammar.new Rule("()", "A");
+		grammar.new Rule("A", 'a');
+		grammar.new Rule("A", 'b', "C", "B");
+		grammar.new Rule("B");
+		grammar.new Rule("C");
+		grammar.new Rule("C", "B", 'c');
+		
+		final LRTable lrTable = new LRTable(new LALR1ClosureTable(grammar));
+		final LRParser parser = new LRParser(lrTable);
+		
+		assertTrue(lrTable.collectAmbiguousExamples().isEmpty());
+		assertTrue(parser.parse(tokens("a")));
+		assertTrue(parser.parse(tokens("b")));
+		assertTrue(parser.parse(tokens("bc")));
+		assertFalse(parser.parse(tokens("bcc")));
+	}
+	
+	@Test
+	public final void testParser4() {
+		final Grammar grammar = new Grammar();
+		
+		grammar.new Rule("()", "N");
+		grammar.new Rule("N", "N", CharClass.range('0', '9'));
+		grammar.new Rule("N", CharClass.range('0', '9'));
+		
+		final LRParser parser = new LRParser(grammar);
+		
+		assertTrue(parser.parse(tokens("123")));
+		assertFalse(parser.parse(tokens("12a")));
+	}
+	
+	@Test
+	public final void testCompiledTable1() {
+		final Grammar grammar = new Grammar();
+		
+		grammar.new Rule("()", "S");
+		grammar.new Rule("S", '\'', "CS", '\'');
+		grammar.new Rule("CS", "C", "CS");
+		grammar.new Rule("CS");
+		grammar.new Rule("C", 'a');
+		grammar.new Rule("C", 'b');
+		
+		final LRTable lrTable = new LRTable(new LALR1ClosureTable(grammar));
+		final CompiledLRTable compiledTable = lrTable.getCompiledTable();
+		final int n = lrTable.getActions().size();
+		
+		assertEquals(n, compiledTable.getStateCount());
+		assertEquals(CompiledLRTable.ACCEPT, compiledTable.getAction(0, compiledTable.getSymbolId("()")));
+		assertEquals(-1L, compiledTable.getSymbolId('c'));
+		
+		for (int i = 0; i < n; ++i) {
+			for (final Map.Entry<Object, List<LRTable.Action>> entry : lrTable.getActions().get(i).entrySet()) {
+				final int action = compiledTable.getAction(i, compiledTable.getSymbolId(entry.getKey()));
+				
+				assertEquals(entry.getValue().get(0), compiledTable.getActionObject(action));
+			}
+		}
+		
+		final LRParser parser = new LRParser(lrTable);
+		
+		assertTrue(parser.parse(tokens("'aba'")));
+		assertFalse(parser.parse(tokens("'abc'")));
+	}
+	
+	@Test
+	public final void testDeRemerPennello1() {
+		final Grammar grammar = new Grammar();
+		
+		grammar.new Rule("()", "S");
+		grammar.new Rule("S", "L", '=', "R");
+		grammar.new Rule("S", "R");
+		grammar.new Rule("L", '*', "R");
+		grammar.new Rule("L", "X", 'i', "X");
+		grammar.new Rule("R", "L");
+		grammar.new Rule("X", 'x', "X");
+		grammar.new Rule("X");
+		
+		final LRTable lrTable = new LRTable(new DeRemerPennelloClosureTable(grammar));
+		
+		assertEquals(new LRTable(new LALR1ClosureTable(grammar)).getActions(), lrTable.getActions());
+		assertTrue(lrTable.collectAmbiguousExamples().isEmpty());
+		
+		final LRParser parser = new LRParser(lrTable);
+		
+		assertTrue(parser.parse(tokens("*xi=*ix")));
+		assertFalse(parser.parse(tokens("*i=")));
+	}
+	
+	@Test
+	public final void testParallelClosureTable1() {
+		final Grammar grammar = new Grammar();
+		
+		grammar.new Rule("()", "E");
+		grammar.new Rule("E", "E", '+', "T");
+		grammar.new Rule("E", "E", '-', "T");
+		grammar.new Rule("E", "T");
+		grammar.new Rule("T", "T", '*', "F");
+		grammar.new Rule("T", "T", '/', "F");
+		grammar.new Rule("T", "F");
+		grammar.new Rule("F", '(', "E", ')');
+		grammar.new Rule("F", '-', "F");
+		grammar.new Rule("F", "N");
+		grammar.new Rule("N", "D", "N");
+		grammar.new Rule("N", "D");
+		grammar.new Rule("D", '0');
+		grammar.new Rule("D", '1');
+		
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		
+		try {
+			final LRTable lrTable = new LRTable(new LALR1ClosureTable(grammar, pool));
+			
+			assertEquals(new LRTable(new LALR1ClosureTable(grammar)).getActions(), lrTable.getActions());
+			assertTrue(new LRParser(lrTable).parse(tokens("-(10+1)*11/-0")));
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	public final void testBinaryFormat1() throws IOException {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		
+		lexerBuilder.generate("natural", oneOrMore(union(range('0', '9'))));
+		lexerBuilder.generate("+", '+');
+		lexerBuilder.skip(oneOrMore(' '));
+		
+		final Lexer lexer = lexerBuilder.newLexer();
+		final ParserBuilder parserBuilder = new ParserBuilder(lexer);
+		
+		parserBuilder.define("()", "Expression");
+		parserBuilder.define("Expression", "Expression", "+", "natural");
+		parserBuilder.define("Expression", "natural");
+		
+		final LRParser parser = parserBuilder.newParser();
+		final ByteArrayOutputStream lexerBuffer = new ByteArrayOutputStream();
+		final ByteArrayOutputStream parserBuffer = new ByteArrayOutputStream();
+		
+		lexer.write(lexerBuffer);
+		parser.getTable().write(parserBuffer);
+		
+		final Lexer lexer2 = Lexer.read(new ByteArrayInputStream(lexerBuffer.toByteArray()));
+		final RuleAction[] actions = {
+				(rule, data) -> data[0],
+				(rule, data) -> (Integer) data[0] + Integer.parseInt(data[2].toString()),
+				(rule, data) -> Integer.parseInt(data[0].toString()),
+		};
+		final LRTable table2 = LRTable.read(new ByteArrayInputStream(parserBuffer.toByteArray()), i -> actions[i]);
+		
+		assertEquals(lexer.getParser().getTable().getActions(), lexer2.getParser().getTable().getActions());
+		assertEquals(parser.getTable().getActions(), table2.getActions());
+		
+		final Object[] datum = { null };
+		
+		assertTrue(new LRParser(table2).parse(lexer2.translate(tokens("12 + 3+4")), datum));
+		assertEquals(19, datum[0]);
+		
+		final Grammar grammar = new Grammar();
+		
+		grammar.new Rule("()", "A");
+		grammar.new Rule("A", "B");
+		grammar.new Rule("B", 'x');
+		
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		
+		new LRTable(new LALR1ClosureTable(grammar)).write(buffer);
+		
+		final byte[] bytes = buffer.toByteArray();
+		
+		for (int i = 2; i < bytes.length; ++i) {
+			if (bytes[i - 2] == 0 && bytes[i - 1] == 1 && bytes[i] == 'B') {
+				// Writes "A" in place of "B"
+				bytes[i] = 'A';
+				break;
+			}
+		}
+		
+		try {
+			LRTable.read(new ByteArrayInputStream(bytes));
+			
+			fail();
+		} catch (final IOException exception) {
+			assertEquals("Duplicate symbol: A", exception.getMessage());
+		}
+	}
+	
+	@Test
+	public final void testParserGenerator1() throws IOException {
+		final Grammar grammar = new Grammar();
+		
+		grammar.new Rule("()", "S");
+		grammar.new Rule("S", '\'', "CS", '\'');
+		grammar.new Rule("CS", "C", "CS");
+		grammar.new Rule("CS");
+		grammar.new Rule("C", 'a');
+		grammar.new Rule("C", '\n');
+		
+		final LRTable lrTable = new LRTable(new LALR1ClosureTable(grammar));
+		final CompiledLRTable compiledTable = lrTable.getCompiledTable();
+		final int n = compiledTable.getStateCount() * compiledTable.getSymbolCount();
+		final int[] actions = new int[n];
+		
+		for (int i = 0; i < n; ++i) {
+			actions[i] = compiledTable.getAction(i / compiledTable.getSymbolCount(), i % compiledTable.getSymbolCount());
+		}
+		
+		assertArrayEquals(actions, ParserGenerator.decode(n, ParserGenerator.encode(actions)));
+		assertArrayEquals(new int[] { 0, 1 << 20, 0, 0, 3 },
+				ParserGenerator.decode(5, ParserGenerator.encode(new int[] { 0, 1 << 20, 0, 0, 3 })));
+		assertEquals("'\\''", ParserGenerator.literal('\''));
+		assertEquals("(char) 0x000A", ParserGenerator.literal('\n'));
+		assertEquals("\"a\\012\"", ParserGenerator.literal("a\n"));
+		assertTrue(ParserGenerator.generate(lrTable, "a.b.C").contains("public abstract class C<T> {"));
+		
+		final Function<String, Object> generatedParser = compileGeneratedParser(lrTable,
+				"return ruleIndex == 2 ? (Integer) data[1] + 1 : ruleIndex == 3 ? 0 : ruleIndex == 1 ? data[1] : data[0];");
+		
+		assertEquals(0, generatedParser.apply("''"));
+		assertEquals(4, generatedParser.apply("'aa\na'"));
+		
+		for (final String input : new String[] { "", "'", "'a", "a'", "'b'", "''a" }) {
+			try {
+				generatedParser.apply(input);
+				
+				fail(input);
+			} catch (final IllegalArgumentException exception) {
+				assertTrue(exception.getMessage().startsWith("Unexpected "));
+			}
+		}
+		
+		final Grammar digits = new Grammar();
+		
+		digits.new Rule("()", "N");
+		digits.new Rule("N", "N", "D");
+		digits.new Rule("N", "D");
+		digits.new Rule("D", CharClass.range('0', '9').union(CharClass.range('A', 'F')));
+		digits.new Rule("D", 'x');
+		
+		final Function<String, Object> generatedDigitsParser = compileGeneratedParser(
+				new LRTable(new LALR1ClosureTable(digits)),
+				"return ruleIndex == 1 ? (Integer) data[0] + 1 : ruleIndex == 2 ? 1 : data[0];");
+		
+		assertEquals(5, generatedDigitsParser.apply("12xF0"));
+		
+		try {
+			generatedDigitsParser.apply("1a");
+			
+			fail();
+		} catch (final IllegalArgumentException exception) {
+			assertEquals("Unexpected token 1: a", exception.getMessage());
+		}
+	}
+	
 	@Test
 	public final void testLexer1() {
 		final Grammar grammar = new Grammar();
@@ -158,22 +448,20 @@ public final class LALR1Test {
 		assertFalse(parser.parse(tokens("")));
 		
 		{
-			final Token[] tokenBox = { null };
 			final List<Object> output = new ArrayList<>();
 			
 			ConflictResolver.setup(grammar, StringCollector.INSTANCE);
 			
-			final RuleAction listener = new StringTokenGenerator(tokenBox);
+			final RuleAction listener = StringTokenGenerator.INSTANCE;
 			grammar.getRules().get(1).setAction(listener);
 			grammar.getRules().get(2).setAction(listener);
 			
-			final Lexer lexer = new Lexer(parser, tokenBox);
+			final Lexer lexer = new Lexer(parser);
 			
 			for (final Object token : lexer.translate(tokens("''  'bb' "))) {
 				output.add(token);
 			}
 			
-			assertNull(tokenBox[0]);
 			assertEquals(2L, output.size());
 		}
 	}
@@ -202,6 +490,710 @@ public final class LALR1Test {
 		assertEquals(2L, output.size());
 	}
 	
+	@Test
+	public final void testDFALexer1() {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		final Union digit = union(range('0', '9'));
+		final Union letter = union(union(range('a', 'z')), union(range('A', 'Z')));
+		
+		lexerBuilder.generate("natural", oneOrMore(digit));
+		lexerBuilder.generate("variable", letter);
+		lexerBuilder.generate("if", 'i', 'f');
+		lexerBuilder.generate("identifier", letter, oneOrMore(union(letter, digit)));
+		lexerBuilder.generate("string", '\'', zeroOrMore("character"), '\'');
+		lexerBuilder.generate("-", '-');
+		lexerBuilder.generate("->", '-', '>');
+		lexerBuilder.generate("real", zeroOrOne(oneOrMore(digit)), '.', oneOrMore(digit));
+		lexerBuilder.define("character", union(digit, letter, ' ', sequence('\\', '\'')));
+		lexerBuilder.skip(oneOrMore(' '));
+		
+		final DFALexer lexer = lexerBuilder.newDFALexer();
+		final List<String> output = new ArrayList<>();
+		
+		for (final Token token : lexer.translate(tokens("if iff i 12 1.5 .5 'a\\' 1'-->x"))) {
+			output.add(token.getNonterminal() + ":" + token.getDatum());
+		}
+		
+		assertEquals(Arrays.asList("if:if", "identifier:iff", "variable:i", "natural:12", "real:1.5", "real:.5",
+				"string:'a\\' 1'", "-:-", "->:->", "variable:x"), output);
+		assertEquals(Arrays.asList("natural:1"), list(lexer.translate(tokens("1#2"))).stream()
+				.map(token -> token.getNonterminal() + ":" + token.getDatum()).collect(Collectors.toList()));
+		
+		final ParserBuilder parserBuilder = new ParserBuilder(lexer);
+		
+		parserBuilder.define("()", "Expression");
+		parserBuilder.define("Expression", "Expression", "-", "natural");
+		parserBuilder.define("Expression", "natural");
+		
+		assertTrue(parserBuilder.newParser().parse(lexer.translate(tokens("1 - 23-4"))));
+	}
+	
+	@Test
+	public final void testCharClass1() {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		final CharClass letter = CharClass.matching(Character::isLetter);
+		final Union digit = union(range('0', '9'));
+		
+		lexerBuilder.generate("if", 'i', 'f');
+		lexerBuilder.generate("identifier", letter, zeroOrMore(union(letter, digit)));
+		lexerBuilder.generate("comment", '#', zeroOrMore(not('\n')));
+		lexerBuilder.skip(oneOrMore(union(' ', '\n')));
+		
+		final Lexer lexer = lexerBuilder.newLexer();
+		final int characterSymbolCount = (int) lexerBuilder.getGrammar().getRules().stream()
+				.flatMap(rule -> Arrays.stream(rule.getDevelopment()))
+				.filter(symbol -> symbol instanceof Character || symbol instanceof CharClass).distinct().count();
+		final String input = "if \u00e9t\u00e92 #x \u00e9\nf";
+		final List<String> expected = Arrays.asList(
+				"if:if", "identifier:\u00e9t\u00e92", "comment:#x \u00e9", "identifier:f");
+		
+		assertTrue(characterSymbolCount < 16);
+		assertEquals(expected, list(lexer.translate(tokens(input))).stream()
+				.map(token -> token.getNonterminal() + ":" + token.getDatum()).collect(Collectors.toList()));
+		assertEquals(expected, list(lexerBuilder.newDFALexer().translate(tokens(input))).stream()
+				.map(token -> token.getNonterminal() + ":" + token.getDatum()).collect(Collectors.toList()));
+	}
+	
+	@Test
+	public final void testCharClass2() {
+		for (int i = 0; i < 2; ++i) {
+			final LexerBuilder lexerBuilder = new LexerBuilder();
+			
+			lexerBuilder.generate("id", oneOrMore(union(range('a', 'z'))));
+			lexerBuilder.generate("e", 'e');
+			lexerBuilder.skip(' ');
+			
+			final Grammar grammar = lexerBuilder.getGrammar();
+			final Lexer lexer = lexerBuilder.newLexer(i == 0 ?
+					new LALR1ClosureTable(grammar) : new DeRemerPennelloClosureTable(grammar));
+			
+			assertEquals(Arrays.asList("id:abe", "id:ab"), list(lexer.translate(tokens("abe ab"))).stream()
+					.map(token -> token.getNonterminal() + ":" + token.getDatum()).collect(Collectors.toList()));
+		}
+	}
+	
+	@Test
+	public final void testCharacterSource1() {
+		final TokenSource<Character> characters = tokens(new char[] { 'a', '\u00e9' });
+		
+		assertTrue(characters.isCharacterSource());
+		assertEquals('a', characters.readCharacter());
+		assertEquals((Character) 'a', characters.back().read().get());
+		assertEquals('\u00e9', characters.readCharacter());
+		assertEquals(TokenSource.END_OF_CHARACTERS, characters.readCharacter());
+		assertEquals(Grammar.Special.END, characters.read().get());
+		assertEquals(TokenSource.END_OF_CHARACTERS, tokens(Arrays.asList('b')).read().read().getCharacter());
+		assertEquals(Arrays.asList('x', 'y'), list(tokens("xy")));
+	}
+	
+	@Test
+	public final void testStreamingSource1() {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		
+		lexerBuilder.generate("word", oneOrMore(not(' ')));
+		lexerBuilder.skip(oneOrMore(' '));
+		
+		final Lexer lexer = lexerBuilder.newLexer();
+		final DFALexer dfaLexer = lexerBuilder.newDFALexer();
+		final StringBuilder inputBuilder = new StringBuilder();
+		
+		for (int i = 0; i < 100; ++i) {
+			inputBuilder.append(" caf\u00e9 ").append(i);
+		}
+		
+		final String input = inputBuilder.toString();
+		final List<Token> expected = list(lexer.translate(tokens(input)));
+		
+		assertEquals(200, expected.size());
+		assertEquals(expected.toString(), list(lexer.translate(tokens(new StringReader(input), 3))).toString());
+		assertEquals(expected.toString(), list(dfaLexer.translate(tokens(Channels.newChannel(
+				new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))), StandardCharsets.UTF_8, 5))).toString());
+	}
+	
+	@Test
+	public final void testMappedSource1() throws IOException {
+		final String text = "a caf\u00e9 \u20ac \ud83d\ude00 z";
+		final byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+		final byte[] bytes = Arrays.copyOf(utf8, utf8.length + 1);
+		final Path file = Files.createTempFile("aurochs", ".txt");
+		
+		bytes[utf8.length] = (byte) 0xFF;
+		
+		try {
+			Files.write(file, bytes);
+			
+			assertEquals(characters(new String(bytes, StandardCharsets.UTF_8)), list(TokenSource.map(file)));
+			
+			final TokenSource<Character> characters = TokenSource.map(file);
+			final List<Long> offsets = new ArrayList<>();
+			
+			while (characters.readCharacter() != TokenSource.END_OF_CHARACTERS) {
+				offsets.add(characters.getOffset());
+			}
+			
+			assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 7L, 8L, 11L, 12L, 12L, 16L, 17L, 18L), offsets);
+			assertEquals(bytes.length, characters.getOffset());
+			
+			final LexerBuilder lexerBuilder = new LexerBuilder();
+			
+			lexerBuilder.generate("word", oneOrMore(not(' ')));
+			lexerBuilder.skip(oneOrMore(' '));
+			
+			assertEquals(5, list(lexerBuilder.newDFALexer().translate(TokenSource.map(file))).size());
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	public final void testTokenSpans1() {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		final StringBuilder longNumber = new StringBuilder();
+		
+		lexerBuilder.generate("natural", oneOrMore(union(range('0', '9'))));
+		lexerBuilder.generate("word", oneOrMore(union(range('a', 'z'))));
+		lexerBuilder.skip(oneOrMore(' '));
+		
+		for (int i = 0; i < 20000; ++i) {
+			longNumber.append(i % 10);
+		}
+		
+		final String input = "ab  12 " + longNumber + " xyz";
+		
+		for (final TokenSource<Token> tokens : Arrays.asList(lexerBuilder.newLexer().translate(tokens(input)),
+				lexerBuilder.newDFALexer().translate(tokens(input)))) {
+			final List<Token> output = list(tokens);
+			
+			assertEquals(4, output.size());
+			
+			for (final Token token : output) {
+				assertEquals(token.getDatum(), input.substring((int) token.getStart(), (int) token.getEnd()));
+			}
+			
+			assertEquals(longNumber.toString(), output.get(2).getDatum());
+		}
+		
+		assertEquals(-1L, list(lexerBuilder.newLexer().translate(tokens(characters("ab")))).get(0).getStart());
+	}
+	
+	@Test
+	public final void testLexerSession1() {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		
+		lexerBuilder.generate("natural", oneOrMore(union(range('0', '9'))));
+		lexerBuilder.generate("+", '+');
+		lexerBuilder.skip(oneOrMore(' '));
+		
+		final Lexer.Session session = lexerBuilder.newLexer().new Session();
+		
+		assertEquals("[natural(1), +(+), natural(23)]", list(session.translate(tokens("1 +23"))).toString());
+		assertEquals("[+(+), natural(4)]", list(session.translate(tokens("+4 #"))).toString());
+		assertEquals("[natural(5)]", list(session.translate(tokens("5"))).toString());
+	}
+	
+	@Test
+	public final void testReusableData1() {
+		final Grammar grammar = new Grammar();
+		final Collection<Object[]> dataArrays = new HashSet<>();
+		final RuleAction action = new RuleAction() {
+			
+			@Override
+			public final Object execute(final Grammar.Rule rule, final Object[] data) {
+				dataArrays.add(data);
+				
+				return null;
+			}
+			
+			@Override
+			public final boolean isKeepingData() {
+				return false;
+			}
+			
+			/**
+			 * {@value}.
+			 */
+			private static final long serialVersionUID = 2236018291434458839L;
+			
+		};
+		
+		grammar.new Rule("()", "L");
+		grammar.new Rule("L", "L", 'a').setAction(action);
+		grammar.new Rule("L", 'a').setAction(action);
+		
+		final LRParser.Parsing parsing = new LRParser(grammar).new Parsing(tokens("aaaa"));
+		
+		assertTrue(parsing.parse());
+		assertTrue(parsing.reset(tokens("aaa")).parse());
+		assertEquals(2, dataArrays.size());
+	}
+	
+	@Test
+	public final void testLexerStackDepth1() {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		
+		lexerBuilder.generate("string", '"', zeroOrMore(union(range('a', 'z'), ' ')), '"');
+		
+		final Lexer lexer = lexerBuilder.newLexer();
+		final StringBuilder input = new StringBuilder("\"");
+		
+		for (int i = 0; i < 100_000; ++i) {
+			input.append(i % 8 == 7 ? ' ' : 'a');
+		}
+		
+		input.append('"');
+		
+		final LRParser.Parsing parsing = lexer.getParser().new Parsing(tokens(input));
+		int maximumStackSize = 0;
+		ParsingStatus status;
+		
+		do {
+			status = parsing.step();
+			maximumStackSize = Math.max(maximumStackSize, parsing.getStackSize());
+		} while (!status.isDone());
+		
+		assertEquals(ParsingStatus.DONE, status);
+		assertTrue("" + maximumStackSize, maximumStackSize <= 4);
+		assertEquals(input.toString(), list(lexer.translate(tokens(input))).get(0).getDatum());
+	}
+	
+	@Test
+	public final void testConcurrentParsing1() throws Exception {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		
+		lexerBuilder.generate("natural", oneOrMore(union(range('0', '9'))));
+		lexerBuilder.generate("+", '+');
+		lexerBuilder.skip(oneOrMore(' '));
+		
+		final Lexer lexer = lexerBuilder.newLexer();
+		final ParserBuilder parserBuilder = new ParserBuilder(lexer);
+		
+		parserBuilder.define("()", "Sum").setAction((rule, data) -> data[0]);
+		parserBuilder.define("Sum", "natural", "+", "Sum").setAction(
+				(rule, data) -> Integer.parseInt(data[0].toString()) + (Integer) data[2]);
+		parserBuilder.define("Sum", "natural").setAction((rule, data) -> Integer.parseInt(data[0].toString()));
+		
+		final LRParser parser = parserBuilder.newParser();
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		
+		try {
+			final List<Integer> sums = pool.submit(() -> Arrays.stream(new int[256]).parallel().map(i -> {
+				final StringBuilder input = new StringBuilder("0");
+				final int n = ThreadLocalRandom.current().nextInt(1, 200);
+				
+				for (int j = 1; j <= n; ++j) {
+					input.append(" + ").append(j);
+				}
+				
+				final Object[] datum = { null };
+				
+				assertTrue(parser.parse(lexer.translate(tokens(input)), datum));
+				
+				return (Integer) datum[0] - n * (n + 1) / 2;
+			}).boxed().collect(Collectors.toList())).get();
+			
+			assertEquals(Collections.nCopies(256, 0), sums);
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	public final void testChunkedLexing1() {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		
+		lexerBuilder.generate("natural", oneOrMore(union(range('0', '9'))));
+		lexerBuilder.generate("string", '\'', zeroOrMore(union(range('a', 'z'), ' ', '\n')), '\'');
+		lexerBuilder.skip(oneOrMore(union(' ', '\n')));
+		
+		final Lexer lexer = lexerBuilder.newLexer();
+		final StringBuilder input = new StringBuilder();
+		
+		for (int i = 0; i < 500; ++i) {
+			input.append(i).append(i % 7 == 0 ? " 'multi\nline' " : " 'ab c' ").append(i % 3 == 0 ? "\n\n" : "\n");
+		}
+		
+		final List<Token> expected = list(lexer.translate(tokens(input)));
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		
+		try {
+			for (final int chunkSize : new int[] { 1, 10, 100, 100_000 }) {
+				final List<Token> actual = lexer.translateInChunks(input, chunkSize, Lexer.afterLineBreaks(input), pool);
+				
+				assertEquals(expected.toString(), actual.toString());
+				assertEquals(spans(expected), spans(actual));
+			}
+			
+			assertEquals(expected.toString(), lexer.translateInChunks(input, 5, i -> true, pool).toString());
+			assertEquals("[natural(1), natural(2)]",
+					lexer.translateInChunks("1 2 # 3", 1, i -> true, pool).toString());
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	public final void testIncrementalParser1() {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		
+		lexerBuilder.generate("natural", oneOrMore(union(range('0', '9'))));
+		lexerBuilder.generate("+", '+');
+		lexerBuilder.generate("(", '(');
+		lexerBuilder.generate(")", ')');
+		lexerBuilder.skip(oneOrMore(' '));
+		
+		final Lexer lexer = lexerBuilder.newLexer();
+		final ParserBuilder parserBuilder = new ParserBuilder(lexer);
+		
+		parserBuilder.define("()", "Sum").setAction((rule, data) -> data[0]);
+		parserBuilder.define("Sum", "Term", "+", "Sum").setAction((rule, data) -> (Integer) data[0] + (Integer) data[2]);
+		parserBuilder.define("Sum", "Term").setAction((rule, data) -> data[0]);
+		parserBuilder.define("Term", "natural").setAction((rule, data) -> Integer.parseInt(data[0].toString()));
+		parserBuilder.define("Term", "(", "Sum", ")").setAction((rule, data) -> data[1]);
+		
+		final LRParser parser = parserBuilder.newParser();
+		final IncrementalParser incrementalParser = new IncrementalParser(parser, lexer);
+		final StringBuilder text = new StringBuilder("0");
+		
+		for (int i = 1; i <= 300; ++i) {
+			text.append(i % 10 == 0 ? " + (" + i + " + 1)" : " + " + i);
+		}
+		
+		assertTrue(incrementalParser.parse(text));
+		assertEquals(300 * 301 / 2 + 30, incrementalParser.getDatum());
+		
+		final int offset = text.indexOf(" 151 ") + 1;
+		
+		assertTrue(incrementalParser.edit(offset, 3, "1510"));
+		assertEquals(300 * 301 / 2 + 30 + 1359, incrementalParser.getDatum());
+		assertEquals(1, incrementalParser.getRelexedTokenCount());
+		assertTrue(incrementalParser.getShiftedTokenCount() < 10);
+		assertTrue(incrementalParser.getReductionCount() < 10);
+		assertTrue(0 < incrementalParser.getRebuiltNodeCount());
+		
+		for (final String number : new String[] { " 3 ", " 299 ", " 42 " }) {
+			assertTrue(checkEdit(incrementalParser, incrementalParser.getText().indexOf(number) + 1, 1, "7"));
+			assertTrue(incrementalParser.getShiftedTokenCount() < 10);
+			assertTrue(incrementalParser.getReductionCount() < 10);
+		}
+		
+		final Random random = new Random(0L);
+		final String[] insertions = { "", "1", "23", " ", "+", "(", ")", " + 4", "5 + " };
+		
+		int successCount = 0;
+		
+		for (int i = 0; i < 500; ++i) {
+			final String oldText = incrementalParser.getText();
+			final int start = random.nextInt(oldText.length() + 1);
+			final int removedLength = random.nextInt(Math.min(4, oldText.length() - start) + 1);
+			final String insertion = insertions[random.nextInt(insertions.length)];
+			
+			final boolean success = checkEdit(incrementalParser, start, removedLength, insertion);
+			
+			if (success) {
+				++successCount;
+			}
+			
+			if (!success || random.nextBoolean()) {
+				assertTrue(checkEdit(incrementalParser, start, insertion.length(),
+						oldText.substring(start, start + removedLength)));
+			}
+		}
+		
+		assertTrue(50 < successCount);
+	}
+	
+	public static final boolean checkEdit(final IncrementalParser incrementalParser,
+			final int start, final int removedLength, final String insertion) {
+		final Lexer lexer = incrementalParser.getLexer();
+		final String oldText = incrementalParser.getText();
+		final String newText = oldText.substring(0, start) + insertion + oldText.substring(start + removedLength);
+		final List<Token> expectedTokens = list(lexer.translate(tokens(newText)));
+		final Object[] expectedDatum = { null };
+		final boolean result = incrementalParser.getParser().parse(lexer.translate(tokens(newText)), expectedDatum);
+		
+		assertEquals(result, incrementalParser.edit(start, removedLength, insertion));
+		assertEquals(newText, incrementalParser.getText());
+		assertEquals(expectedTokens.toString(), incrementalParser.getTokens().toString());
+		assertEquals(spans(expectedTokens), spans(incrementalParser.getTokens()));
+		
+		if (result) {
+			assertEquals(expectedDatum[0], incrementalParser.getDatum());
+		}
+		
+		return result;
+	}
+	
+	@Test
+	public final void testIncrementalLexer1() {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		
+		lexerBuilder.generate("natural", oneOrMore(union(range('0', '9'))));
+		lexerBuilder.generate("string", '\'', zeroOrMore(union(range('a', 'z'), ' ', '\n')), '\'');
+		lexerBuilder.skip(oneOrMore(union(' ', '\n')));
+		
+		final Lexer lexer = lexerBuilder.newLexer();
+		final IncrementalLexer incrementalLexer = new IncrementalLexer(lexer);
+		final StringBuilder text = new StringBuilder();
+		
+		for (int i = 0; i < 5000; ++i) {
+			text.append(i).append(i % 7 == 0 ? " 'multi\nline' " : " 'ab c' ").append('\n');
+		}
+		
+		assertEquals(0, incrementalLexer.setText(text));
+		assertEquals(10000, incrementalLexer.getRelexedTokenCount());
+		
+		final int offset = text.indexOf("\n2500 ") + 3;
+		
+		assertEquals(5000, incrementalLexer.edit(offset, 1, "99"));
+		assertEquals(1, incrementalLexer.getRemovedTokenCount());
+		assertEquals(1, incrementalLexer.getRelexedTokenCount());
+		assertEquals("natural(25990)", incrementalLexer.getTokens().get(5000).toString());
+		
+		final Random random = new Random(0L);
+		final String[] insertions = { "", "1", "a", " ", "\n", "'", "' '", "#" };
+		
+		for (int i = 0; i < 500; ++i) {
+			final String oldText = incrementalLexer.getText();
+			final int start = random.nextInt(oldText.length() + 1);
+			final int removedLength = random.nextInt(Math.min(4, oldText.length() - start) + 1);
+			final String insertion = insertions[random.nextInt(insertions.length)];
+			final String newText = oldText.substring(0, start) + insertion + oldText.substring(start + removedLength);
+			final List<Token> expectedTokens = list(lexer.translate(tokens(newText)));
+			
+			incrementalLexer.edit(start, removedLength, insertion);
+			
+			assertEquals(newText, incrementalLexer.getText());
+			assertEquals(expectedTokens.size(), incrementalLexer.getTokenCount());
+			
+			for (int j = 0; j < expectedTokens.size(); ++j) {
+				assertEquals(expectedTokens.get(j).getStart(), incrementalLexer.getStart(j));
+				assertEquals(expectedTokens.get(j).getEnd(), incrementalLexer.getEnd(j));
+			}
+			
+			if (i % 10 == 0) {
+				assertEquals(expectedTokens.toString(), incrementalLexer.getTokens().toString());
+				assertEquals(spans(expectedTokens), spans(incrementalLexer.getTokens()));
+			}
+			
+			if (random.nextBoolean()) {
+				incrementalLexer.edit(start, insertion.length(), oldText.substring(start, start + removedLength));
+				
+				assertEquals(oldText, incrementalLexer.getText());
+			}
+		}
+	}
+	
+	@Test
+	public final void testPushParser1() {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		
+		lexerBuilder.generate("natural", oneOrMore(union(range('0', '9'))));
+		lexerBuilder.generate("+", '+');
+		lexerBuilder.generate("(", '(');
+		lexerBuilder.generate(")", ')');
+		lexerBuilder.skip(oneOrMore(' '));
+		
+		final Lexer lexer = lexerBuilder.newLexer();
+		final ParserBuilder parserBuilder = new ParserBuilder(lexer);
+		
+		parserBuilder.define("()", "Sum").setAction((rule, data) -> data[0]);
+		parserBuilder.define("Sum", "Term", "+", "Sum").setAction((rule, data) -> (Integer) data[0] + (Integer) data[2]);
+		parserBuilder.define("Sum", "Term").setAction((rule, data) -> data[0]);
+		parserBuilder.define("Term", "natural").setAction((rule, data) -> Integer.parseInt(data[0].toString()));
+		parserBuilder.define("Term", "(", "Sum", ")").setAction((rule, data) -> data[1]);
+		
+		final LRParser parser = parserBuilder.newParser();
+		final String text = "12 + (3 + 45)  + 678 + ((9))";
+		
+		for (int chunkSize = 1; chunkSize <= text.length(); ++chunkSize) {
+			final PushParser pushParser = new PushParser(parser, lexer);
+			
+			for (int i = 0; i < text.length(); i += chunkSize) {
+				assertTrue(pushParser.feed(text.substring(i, Math.min(text.length(), i + chunkSize))));
+				assertFalse(pushParser.isDone());
+			}
+			
+			assertTrue(pushParser.endOfInput());
+			assertEquals(747, pushParser.getDatum());
+		}
+		
+		{
+			final PushParser pushParser = new PushParser(parser, lexer);
+			
+			assertTrue(pushParser.feed("1 + 2"));
+			assertEquals(3L, pushParser.getPendingOffset());
+			assertFalse(pushParser.feed(" + #"));
+			assertFalse(pushParser.endOfInput());
+		}
+		
+		assertFalse(new PushParser(parser, lexer).feed("1 + + 2"));
+		assertFalse(new PushParser(parser, lexer).endOfInput());
+		
+		{
+			final PushParser pushParser = new PushParser(parser, lexer);
+			
+			assertTrue(pushParser.feed("1 +"));
+			
+			for (int i = 0; i < 100_000; ++i) {
+				assertTrue(pushParser.feed(" "));
+			}
+			
+			assertEquals(3L, pushParser.getPendingOffset());
+			assertTrue(pushParser.feed("2"));
+			assertTrue(pushParser.endOfInput());
+			assertEquals(3, pushParser.getDatum());
+		}
+		
+		{
+			final PushParser pushParser = new PushParser(parser, lexer);
+			final PushParser.Subscriber<String> subscriber = new PushParser.Subscriber<>(
+					pushParser, PushParser::feed, 2L);
+			final long[] requested = { 0L };
+			
+			subscriber.onSubscribe(n -> requested[0] += n, () -> requested[0] = -1L);
+			
+			for (final String item : "1 + ( 2 + 3 ) ".split("(?<= )")) {
+				assertTrue(0L < requested[0]);
+				
+				--requested[0];
+				subscriber.onNext(item);
+			}
+			
+			assertFalse(subscriber.getResult().isDone());
+			
+			subscriber.onComplete();
+			
+			assertEquals(6, subscriber.getResult().join().getDatum());
+		}
+		
+		{
+			final PushParser pushParser = new PushParser(parser, lexer);
+			final PushParser.Subscriber<Object> subscriber = new PushParser.Subscriber<>(
+					pushParser, PushParser::feedToken);
+			final boolean[] cancelled = { false };
+			
+			subscriber.onSubscribe(n -> {}, () -> cancelled[0] = true);
+			pushParser.feed("1");
+			subscriber.onNext("+");
+			
+			assertTrue(cancelled[0]);
+			assertTrue(subscriber.getResult().isCompletedExceptionally());
+		}
+	}
+	
+	@Test
+	public final void testPrecedences1() {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		
+		lexerBuilder.generate("natural", oneOrMore(union(range('0', '9'))));
+		
+		for (final char operator : "+-*^<()".toCharArray()) {
+			lexerBuilder.generate("" + operator, operator);
+		}
+		
+		lexerBuilder.skip(oneOrMore(' '));
+		
+		final Lexer lexer = lexerBuilder.newLexer();
+		final ParserBuilder parserBuilder = new ParserBuilder(lexer);
+		
+		parserBuilder.define("()", "E").setAction((rule, data) -> data[0]);
+		parserBuilder.define("E", "E", "<", "E").setAction((rule, data) -> (Integer) data[0] < (Integer) data[2] ? 1 : 0);
+		parserBuilder.define("E", "E", "+", "E").setAction((rule, data) -> (Integer) data[0] + (Integer) data[2]);
+		parserBuilder.define("E", "E", "-", "E").setAction((rule, data) -> (Integer) data[0] - (Integer) data[2]);
+		parserBuilder.define("E", "E", "*", "E").setAction((rule, data) -> (Integer) data[0] * (Integer) data[2]);
+		parserBuilder.define("E", "E", "^", "E").setAction(
+				(rule, data) -> (int) Math.pow((Integer) data[0], (Integer) data[2]));
+		parserBuilder.setPrecedence(parserBuilder.define("E", "-", "E").setAction((rule, data) -> -(Integer) data[1]),
+				"NEGATION");
+		parserBuilder.define("E", "(", "E", ")").setAction((rule, data) -> data[1]);
+		parserBuilder.define("E", "natural").setAction((rule, data) -> Integer.parseInt(data[0].toString()));
+		
+		parserBuilder.setPrecedence(1, Associativity.NONE, "<");
+		parserBuilder.setPrecedence(2, Associativity.LEFT, "+", "-");
+		parserBuilder.setPrecedence(3, Associativity.LEFT, "*");
+		parserBuilder.setPrecedence(4, Associativity.RIGHT, "^");
+		parserBuilder.setPrecedence(5, Associativity.NONE, "NEGATION");
+		
+		final LRParser parser = parserBuilder.newParser();
+		
+		assertTrue(parser.getTable().collectAmbiguousExamples().isEmpty());
+		assertFalse(parser.getTable().getResolutions().isEmpty());
+		
+		for (final LRTable.Resolution resolution : parser.getTable().getResolutions()) {
+			assertTrue(resolution.getChoices().size() < resolution.getCandidates().size());
+		}
+		
+		final Object[] datum = { null };
+		
+		assertTrue(parser.parse(lexer.translate(tokens("1 + 2 * 3 - 4")), datum));
+		assertEquals(3, datum[0]);
+		assertTrue(parser.parse(lexer.translate(tokens("10 - 2 - 3")), datum));
+		assertEquals(5, datum[0]);
+		assertTrue(parser.parse(lexer.translate(tokens("2 ^ 3 ^ 2")), datum));
+		assertEquals(512, datum[0]);
+		assertTrue(parser.parse(lexer.translate(tokens("-2 ^ 2 - -3 * 2")), datum));
+		assertEquals(10, datum[0]);
+		assertTrue(parser.parse(lexer.translate(tokens("1 + 1 < 3")), datum));
+		assertEquals(1, datum[0]);
+		assertFalse(parser.parse(lexer.translate(tokens("1 < 2 < 3"))));
+	}
+	
+	@Test
+	public final void testBatchParser1() {
+		final LexerBuilder lexerBuilder = new LexerBuilder();
+		
+		lexerBuilder.generate("natural", oneOrMore(union(range('0', '9'))));
+		lexerBuilder.generate("+", '+');
+		lexerBuilder.skip(oneOrMore(' '));
+		
+		final Lexer lexer = lexerBuilder.newLexer();
+		final ParserBuilder parserBuilder = new ParserBuilder(lexer);
+		
+		parserBuilder.define("()", "Sum").setAction((rule, data) -> data[0]);
+		parserBuilder.define("Sum", "natural", "+", "Sum").setAction(
+				(rule, data) -> Integer.parseInt(data[0].toString()) + (Integer) data[2]);
+		parserBuilder.define("Sum", "natural").setAction((rule, data) -> Integer.parseInt(data[0].toString()));
+		
+		final BatchParser batchParser = new BatchParser(parserBuilder.newParser(), lexer, 8, 4);
+		final List<String> inputs = new ArrayList<>();
+		
+		for (int i = 0; i < 1000; ++i) {
+			inputs.add(i % 100 == 99 ? i + " +" : i + " + 1");
+		}
+		
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		
+		try {
+			final List<BatchParser.Result> results = batchParser.parseAll(inputs, executor);
+			
+			assertEquals(inputs.size(), results.size());
+			
+			for (int i = 0; i < inputs.size(); ++i) {
+				assertEquals(i, results.get(i).getIndex());
+				assertEquals(i % 100 != 99, results.get(i).isSuccess());
+				
+				if (results.get(i).isSuccess()) {
+					assertEquals(i + 1, results.get(i).getDatum());
+				}
+			}
+			
+			assertEquals(990L, batchParser.parseAllAsCompleted(inputs.stream(), executor)
+					.filter(BatchParser.Result::isSuccess).mapToInt(result -> (Integer) result.getDatum()
+							- (int) result.getIndex()).filter(difference -> difference == 1).count());
+			
+			final List<BatchParser.Result> unlexable = batchParser.parseAll(
+					Arrays.asList("1 + 2", "1 + 2 #", "1 + 2 # junk 9"), executor);
+			
+			assertTrue(unlexable.get(0).isSuccess());
+			assertEquals(3, unlexable.get(0).getDatum());
+			assertFalse(unlexable.get(1).isSuccess());
+			assertNull(unlexable.get(1).getDatum());
+			assertFalse(unlexable.get(2).isSuccess());
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
 	@Test
 	public final void testFullParser1() {
 		final LexerBuilder lexerBuilder = new LexerBuilder();
@@ -285,6 +1277,60 @@ public final class LALR1Test {
 		assertTrue(parser.parse(lexer.translate(tokens("12(-42)   'toto'"))));
 	}
 	
+	public static final List<Long> spans(final List<Token> tokens) {
+		return tokens.stream().flatMap(token -> Arrays.asList(token.getStart(), token.getEnd()).stream())
+				.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Compiles the parser generated from <code>table</code> with a subclass whose <code>reduce</code> method
+	 * has the body <code>reduce</code>.
+	 * 
+	 * @return The <code>parse</code> method of an instance, applied to the characters of its argument
+	 */
+	public static final Function<String, Object> compileGeneratedParser(final LRTable table, final String reduce)
+			throws IOException {
+		final Path directory = Files.createTempDirectory("aurochs");
+		
+		try {
+			final Path generated = directory.resolve("C.java");
+			final Path subclass = directory.resolve("D.java");
+			
+			Files.write(generated, ParserGenerator.generate(table, "generated.C").getBytes(StandardCharsets.UTF_8));
+			Files.write(subclass, String.join("\n",
+					"package generated;",
+					"public final class D extends C<Object> {",
+					"	@Override",
+					"	protected final Object reduce(final int ruleIndex, final Object[] data) {",
+					"		" + reduce,
+					"	}",
+					"}").getBytes(StandardCharsets.UTF_8));
+			
+			assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null,
+					"-d", directory.toString(), generated.toString(), subclass.toString()));
+			
+			final Object parser = new URLClassLoader(new URL[] { directory.toUri().toURL() })
+					.loadClass("generated.D").getConstructor().newInstance();
+			final Method parse = parser.getClass().getMethod("parse", Iterator.class);
+			
+			return input -> {
+				try {
+					return parse.invoke(parser, characters(input).iterator());
+				} catch (final InvocationTargetException exception) {
+					throw (RuntimeException) exception.getCause();
+				} catch (final IllegalAccessException exception) {
+					throw Tools.unchecked(exception);
+				}
+			};
+		} catch (final ReflectiveOperationException exception) {
+			throw Tools.unchecked(exception);
+		} finally {
+			try (final Stream<Path> paths = Files.walk(directory)) {
+				paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			}
+		}
+	}
+	
 	public static final void print(final LRTable lrTable) {
 		final int n = lrTable.getActions().size();
 		